@@ -0,0 +1,111 @@
+package com.truvideo.video;
+
+import android.util.Log;
+
+import com.getcapacitor.JSObject;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs asynchronous SDK work with at most {@code maxParallel} tasks in flight.
+ * A task keeps its slot until it calls {@code done}, so the limit covers the whole
+ * SDK callback round-trip and not only the thread that started it. Waiting tasks
+ * start in priority order, then in submission order. A task that throws gets its slot
+ * back and its failure hook called, since no callback of its own will settle the work.
+ */
+class BoundedExecutor {
+
+    private static final String TAG = "BoundedExecutor";
+
+    interface Task {
+        void run(Runnable done);
+    }
+
+    interface Failure {
+        void failed(RuntimeException e);
+    }
+
+    private static final class Entry {
+        final int priority;
+        final long sequence;
+        final Task task;
+        final Failure failure;
+
+        Entry(int priority, long sequence, Task task, Failure failure) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.task = task;
+            this.failure = failure;
+        }
+    }
+
+    private final Executor dispatcher;
+    private final PriorityQueue<Entry> pending = new PriorityQueue<>((a, b) ->
+            a.priority != b.priority ? Integer.compare(b.priority, a.priority) : Long.compare(a.sequence, b.sequence));
+    private final int maxParallel;
+    private int running;
+    private long sequence;
+
+    BoundedExecutor(Executor dispatcher, int maxParallel) {
+        this.dispatcher = dispatcher;
+        this.maxParallel = Math.max(1, maxParallel);
+    }
+
+    void execute(Task task, Failure failure) {
+        execute(0, task, failure);
+    }
+
+    void execute(int priority, Task task, Failure failure) {
+        synchronized (this) {
+            pending.add(new Entry(priority, sequence++, task, failure));
+        }
+        drain();
+    }
+
+    synchronized JSObject stats() {
+        JSObject stats = new JSObject();
+        stats.put("queueDepth", pending.size());
+        stats.put("running", running);
+        stats.put("maxParallel", maxParallel);
+        return stats;
+    }
+
+    private void drain() {
+        while (true) {
+            Entry next;
+            synchronized (this) {
+                if (running >= maxParallel || pending.isEmpty()) {
+                    return;
+                }
+                next = pending.poll();
+                running++;
+            }
+            dispatcher.execute(() -> start(next));
+        }
+    }
+
+    private void start(Entry entry) {
+        AtomicBoolean finished = new AtomicBoolean();
+        Runnable done = () -> {
+            if (finished.compareAndSet(false, true)) {
+                synchronized (this) {
+                    running--;
+                }
+                drain();
+            }
+        };
+        try {
+            entry.task.run(done);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "task failed", e);
+            done.run();
+            try {
+                entry.failure.failed(e);
+            } catch (RuntimeException hookError) {
+                Log.e(TAG, "failure hook failed", hookError);
+            }
+        }
+    }
+}
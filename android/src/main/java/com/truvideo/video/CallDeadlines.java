@@ -0,0 +1,94 @@
+package com.truvideo.video;
+
+import android.util.Log;
+
+import com.getcapacitor.PluginCall;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Makes sure every plugin call is settled exactly once. Each call is registered when its
+ * method starts; the first resolve or reject claims it and any later one is dropped. A
+ * call with a timeout is claimed by its timer when the work has not answered in time.
+ */
+class CallDeadlines {
+
+    private static final String TAG = "CallDeadlines";
+
+    interface Expiry {
+        void expired(PluginCall call, long timeoutMs);
+    }
+
+    private static final class Entry {
+        ScheduledFuture<?> timer;
+        // Stops the work behind the call when its deadline passes; set by the method
+        Runnable cancel;
+    }
+
+    private final ScheduledExecutorService timers;
+    // Callback id -> call not yet settled
+    private final Map<String, Entry> pending = new ConcurrentHashMap<>();
+
+    CallDeadlines(ScheduledExecutorService timers) {
+        this.timers = timers;
+    }
+
+    void arm(PluginCall call, long timeoutMs, Expiry expiry) {
+        Entry entry = new Entry();
+        pending.put(call.getCallbackId(), entry);
+        if (timeoutMs <= 0) {
+            return;
+        }
+        ScheduledFuture<?> timer = timers.schedule(() -> {
+            if (pending.remove(call.getCallbackId(), entry)) {
+                expiry.expired(call, timeoutMs);
+                runCancel(entry);
+            }
+        }, timeoutMs, TimeUnit.MILLISECONDS);
+        synchronized (entry) {
+            entry.timer = timer;
+        }
+    }
+
+    void onExpiry(PluginCall call, Runnable cancel) {
+        Entry entry = pending.get(call.getCallbackId());
+        if (entry != null) {
+            synchronized (entry) {
+                entry.cancel = cancel;
+            }
+        }
+    }
+
+    boolean settle(PluginCall call) {
+        // True for the first caller only; the timer is stopped so it cannot fire afterwards
+        Entry entry = pending.remove(call.getCallbackId());
+        if (entry == null) {
+            return false;
+        }
+        synchronized (entry) {
+            if (entry.timer != null) {
+                entry.timer.cancel(false);
+            }
+        }
+        return true;
+    }
+
+    private static void runCancel(Entry entry) {
+        Runnable cancel;
+        synchronized (entry) {
+            cancel = entry.cancel;
+        }
+        if (cancel == null) {
+            return;
+        }
+        try {
+            cancel.run();
+        } catch (RuntimeException e) {
+            Log.w(TAG, "cannot cancel timed-out work", e);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.truvideo.video;
+
+import com.getcapacitor.JSObject;
+
+/**
+ * Picks output resolution and frame rate so an encode fits a bit budget. The SDK
+ * exposes no bitrate setting, so the output rate is modelled as bits per pixel per
+ * frame and the plan shrinks pixels and frames until the model fits. A measured
+ * output recalibrates the model for a second pass.
+ */
+final class EncodeBudget {
+
+    // Typical H.264 density for camera footage at the encoder's default quality
+    static final double DEFAULT_BITS_PER_PIXEL = 0.1;
+    private static final long AUDIO_BITS_PER_SECOND = 128_000;
+    // Short-side heights tried from best to worst; the source's own height is tried first
+    private static final int[] HEIGHTS = {2160, 1440, 1080, 720, 540, 480, 360, 240};
+    private static final int[] FRAME_RATES = {60, 50, 30, 25, 24};
+
+    static final class Plan {
+        final int width;
+        final int height;
+        final int fps;
+        final double bitsPerPixel;
+        final long estimatedBytes;
+
+        Plan(int width, int height, int fps, double bitsPerPixel, long estimatedBytes) {
+            this.width = width;
+            this.height = height;
+            this.fps = fps;
+            this.bitsPerPixel = bitsPerPixel;
+            this.estimatedBytes = estimatedBytes;
+        }
+
+        VideoConfig toConfig() {
+            VideoConfig config = new VideoConfig();
+            config.width = width;
+            config.height = height;
+            config.framesRate = frameRateName(fps);
+            return config;
+        }
+
+        JSObject toJSObject() {
+            JSObject obj = new JSObject();
+            obj.put("width", width);
+            obj.put("height", height);
+            obj.put("frameRate", fps);
+            obj.put("estimatedBytes", estimatedBytes);
+            return obj;
+        }
+    }
+
+    private EncodeBudget() {
+    }
+
+    static Plan plan(long durationMillis, int sourceWidth, int sourceHeight, double sourceFps, long targetBits, double bitsPerPixel) {
+        // Keeps as much resolution as the budget allows, then as many frames per second;
+        // falls back to the smallest rung when nothing fits
+        double seconds = Math.max(1, durationMillis) / 1000.0;
+        double videoBitsPerSecond = targetBits / seconds - AUDIO_BITS_PER_SECOND;
+        int shortSide = Math.min(sourceWidth, sourceHeight);
+        int longSide = Math.max(sourceWidth, sourceHeight);
+        boolean portrait = sourceHeight > sourceWidth;
+        int maxFps = sourceFps > 0 ? (int) Math.round(sourceFps) : 30;
+
+        Plan smallest = null;
+        for (int i = -1; i < HEIGHTS.length; i++) {
+            int height = i < 0 ? shortSide : HEIGHTS[i];
+            if (i >= 0 && height >= shortSide) {
+                continue;
+            }
+            int scaledLong = even((long) height * longSide / shortSide);
+            int scaledShort = even(height);
+            for (int fps : FRAME_RATES) {
+                if (fps > Math.max(maxFps, 24)) {
+                    continue;
+                }
+                double rate = bitsPerPixel * scaledLong * scaledShort * fps;
+                long estimatedBytes = (long) ((rate + AUDIO_BITS_PER_SECOND) * seconds / 8);
+                Plan plan = new Plan(
+                        portrait ? scaledShort : scaledLong,
+                        portrait ? scaledLong : scaledShort,
+                        fps,
+                        bitsPerPixel,
+                        estimatedBytes
+                );
+                if (rate <= videoBitsPerSecond) {
+                    return plan;
+                }
+                smallest = plan;
+            }
+        }
+        return smallest;
+    }
+
+    static Plan replan(Plan previous, long actualBytes, long durationMillis, int sourceWidth, int sourceHeight,
+                       double sourceFps, long targetBits) {
+        // Scales the model by how far the measured output overshot its estimate, and aims
+        // a little under the budget so the second pass lands inside it
+        double ratio = previous.estimatedBytes > 0 ? (double) actualBytes / previous.estimatedBytes : 1;
+        double calibrated = previous.bitsPerPixel * Math.max(1, ratio);
+        return plan(durationMillis, sourceWidth, sourceHeight, sourceFps, (long) (targetBits * 0.95), calibrated);
+    }
+
+    static String frameRateName(int fps) {
+        switch (fps) {
+            case 24:
+                return "twentyFourFps";
+            case 25:
+                return "twentyFiveFps";
+            case 50:
+                return "fiftyFps";
+            case 60:
+                return "sixtyFps";
+            default:
+                return "thirtyFps";
+        }
+    }
+
+    private static int even(long value) {
+        return (int) Math.max(2, value & ~1L);
+    }
+}
@@ -0,0 +1,162 @@
+package com.truvideo.video;
+
+import com.getcapacitor.JSObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content-addressed file store used for thumbnails and transcode results. Callers name
+ * entries by a hash of whatever produced them, and the least recently used files are
+ * deleted once the directory grows past its byte budget. Pinned entries and the entry
+ * being added are never deleted, so the budget can be exceeded while they are in use.
+ */
+class FileCache {
+
+    private final File dir;
+    private final long maxBytes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    // File name -> size, in access order
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Key -> pin count; pinned files are skipped by eviction
+    private final Map<String, Integer> pins = new HashMap<>();
+    private long totalBytes;
+    private boolean loaded;
+
+    FileCache(File dir, long maxBytes) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+    }
+
+    synchronized File get(String key) {
+        load();
+        Long size = entries.get(key);
+        if (size != null) {
+            File file = fileFor(key);
+            // A length change means someone rewrote a file that shares our inode
+            if (file.isFile() && file.length() == size) {
+                file.setLastModified(System.currentTimeMillis());
+                hits.incrementAndGet();
+                return file;
+            }
+            remove(key);
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    synchronized boolean contains(String key) {
+        // Presence only; unlike get() it counts no lookup and leaves the LRU order alone
+        load();
+        return entries.containsKey(key) && new File(dir, key).isFile();
+    }
+
+    File fileFor(String key) {
+        dir.mkdirs();
+        return new File(dir, key);
+    }
+
+    File put(String key, File source) throws IOException {
+        // Files produced straight into fileFor(key) are registered without a copy
+        File target = fileFor(key);
+        if (!source.getCanonicalPath().equals(target.getCanonicalPath())) {
+            IoUtils.linkOrCopy(source, target);
+        }
+        synchronized (this) {
+            load();
+            Long previous = entries.put(key, target.length());
+            totalBytes += target.length() - (previous != null ? previous : 0);
+            // The caller is about to use the new file, so it is never the one evicted
+            evict(key);
+        }
+        return target;
+    }
+
+    synchronized void pin(String key) {
+        pins.merge(key, 1, Integer::sum);
+    }
+
+    synchronized void unpin(String key) {
+        Integer count = pins.get(key);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            pins.put(key, count - 1);
+            return;
+        }
+        pins.remove(key);
+        // Whatever the pin held over budget can go now
+        load();
+        evict(null);
+    }
+
+    synchronized void remove(String key) {
+        Long size = entries.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        new File(dir, key).delete();
+    }
+
+    synchronized void clear() {
+        load();
+        for (String key : entries.keySet()) {
+            new File(dir, key).delete();
+        }
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    synchronized JSObject stats() {
+        load();
+        long lookups = hits.get() + misses.get();
+        JSObject stats = new JSObject();
+        stats.put("size", entries.size());
+        stats.put("bytes", totalBytes);
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("hitRate", lookups == 0 ? 0d : (double) hits.get() / lookups);
+        return stats;
+    }
+
+    private void evict(String keep) {
+        Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            if (eldest.getKey().equals(keep) || pins.containsKey(eldest.getKey())) {
+                continue;
+            }
+            new File(dir, eldest.getKey()).delete();
+            totalBytes -= eldest.getValue();
+            it.remove();
+        }
+    }
+
+    private void load() {
+        // Rebuilds the LRU order from file mtimes, which get() refreshes on every hit
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        File[] files = dir.listFiles(file -> file.isFile() && !file.getName().endsWith(".part"));
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File file : files) {
+            entries.put(file.getName(), file.length());
+            totalBytes += file.length();
+        }
+        // No eviction here: the first put may find its own file already on disk, and an
+        // over-budget directory is trimmed by that put anyway
+    }
+}
@@ -0,0 +1,51 @@
+package com.truvideo.video;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Identity of a local file as canonical path plus size and last-modified time. Caches
+ * keyed by it treat a changed size or mtime as a different file.
+ */
+final class FileKey {
+
+    final String path;
+    final long size;
+    final long lastModified;
+
+    private FileKey(String path, long size, long lastModified) {
+        this.path = path;
+        this.size = size;
+        this.lastModified = lastModified;
+    }
+
+    static FileKey of(String path) {
+        // Returns null for anything that is not an existing local file, e.g. content:// URIs
+        if (path == null) {
+            return null;
+        }
+        if (path.startsWith("file://")) {
+            path = path.substring("file://".length());
+        } else if (path.contains("://")) {
+            return null;
+        }
+        File file = new File(path);
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            return new FileKey(file.getCanonicalPath(), file.length(), file.lastModified());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    boolean matches(long size, long lastModified) {
+        return this.size == size && this.lastModified == lastModified;
+    }
+
+    @Override
+    public String toString() {
+        return path + "|" + size + "|" + lastModified;
+    }
+}
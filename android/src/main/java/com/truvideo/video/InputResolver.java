@@ -0,0 +1,208 @@
+package com.truvideo.video;
+
+import android.content.ContentResolver;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import android.provider.DocumentsContract;
+import android.provider.OpenableColumns;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Turns plugin inputs into paths the SDK can open. Plain paths pass through untouched,
+ * {@code file://} URIs are unwrapped, and {@code content://} URIs are staged into a
+ * file cache with a channel transfer. A staged copy is reused for as long as the
+ * provider reports the same size and modification time, and stays pinned in the cache
+ * while a call that {@link #hold}s its URI is still running.
+ */
+class InputResolver {
+
+    private static final String TAG = "InputResolver";
+
+    private final ContentResolver resolver;
+    private final FileCache staged;
+    // Staging key -> lock, so concurrent calls for one clip copy it once
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+    // Owner -> content:// inputs it holds
+    private final Map<String, List<String>> holders = new ConcurrentHashMap<>();
+    // Held input -> number of owners; guards pinned too and is taken before the cache lock
+    private final Map<String, Integer> holds = new HashMap<>();
+    // Held input -> staging key pinned for it
+    private final Map<String, String> pinned = new HashMap<>();
+
+    InputResolver(ContentResolver resolver, FileCache staged) {
+        this.resolver = resolver;
+        this.staged = staged;
+    }
+
+    void hold(String owner, Collection<String> inputs) {
+        // Pins the staged copies of the owner's content:// inputs until release(owner), so
+        // staging one clip of a call cannot evict another the SDK has not read yet
+        List<String> content = new ArrayList<>();
+        for (String input : inputs) {
+            if (input != null && input.startsWith("content://")) {
+                content.add(input);
+            }
+        }
+        if (content.isEmpty()) {
+            return;
+        }
+        holders.put(owner, content);
+        synchronized (holds) {
+            for (String input : content) {
+                holds.merge(input, 1, Integer::sum);
+            }
+        }
+    }
+
+    void release(String owner) {
+        List<String> content = holders.remove(owner);
+        if (content == null) {
+            return;
+        }
+        synchronized (holds) {
+            for (String input : content) {
+                Integer count = holds.get(input);
+                if (count != null && count > 1) {
+                    holds.put(input, count - 1);
+                    continue;
+                }
+                holds.remove(input);
+                String key = pinned.remove(input);
+                if (key != null) {
+                    staged.unpin(key);
+                }
+            }
+        }
+    }
+
+    String resolve(String input) {
+        if (input == null) {
+            return null;
+        }
+        if (input.startsWith("file://")) {
+            return Uri.parse(input).getPath();
+        }
+        if (!input.startsWith("content://")) {
+            return input;
+        }
+        try {
+            return stage(input, Uri.parse(input)).getPath();
+        } catch (IOException | SecurityException | IllegalArgumentException e) {
+            // Let the SDK try the URI itself rather than failing here
+            Log.w(TAG, "cannot stage " + input, e);
+            return input;
+        }
+    }
+
+    long sizeOf(String input) {
+        // Bytes behind an input for space estimates; the provider's size for content:// URIs,
+        // 0 when it cannot be told
+        if (input == null) {
+            return 0;
+        }
+        if (!input.startsWith("content://")) {
+            return new File(input.startsWith("file://") ? Uri.parse(input).getPath() : input).length();
+        }
+        Uri uri = Uri.parse(input);
+        long size = query(uri).size;
+        if (size >= 0) {
+            return size;
+        }
+        try (ParcelFileDescriptor descriptor = resolver.openFileDescriptor(uri, "r")) {
+            return descriptor != null ? Math.max(0, descriptor.getStatSize()) : 0;
+        } catch (IOException | SecurityException | IllegalArgumentException e) {
+            return 0;
+        }
+    }
+
+    boolean needsStaging(String input) {
+        // True for a content:// input whose staged copy is not in the cache yet
+        if (input == null || !input.startsWith("content://")) {
+            return false;
+        }
+        Uri uri = Uri.parse(input);
+        return !staged.contains(stagingKey(uri, query(uri)));
+    }
+
+    private File stage(String input, Uri uri) throws IOException {
+        String key = stagingKey(uri, query(uri));
+        Object lock = locks.computeIfAbsent(key, k -> new Object());
+        try {
+            synchronized (lock) {
+                synchronized (holds) {
+                    File cached = staged.get(key);
+                    if (cached != null) {
+                        pinIfHeld(input, key);
+                        return cached;
+                    }
+                }
+                ParcelFileDescriptor descriptor = resolver.openFileDescriptor(uri, "r");
+                if (descriptor == null) {
+                    throw new IOException("Provider returned no file for " + uri);
+                }
+                File target = staged.fileFor(key);
+                try (FileInputStream in = new ParcelFileDescriptor.AutoCloseInputStream(descriptor)) {
+                    IoUtils.transfer(in.getChannel(), target);
+                }
+                synchronized (holds) {
+                    File file = staged.put(key, target);
+                    pinIfHeld(input, key);
+                    return file;
+                }
+            }
+        } finally {
+            locks.remove(key, lock);
+        }
+    }
+
+    private void pinIfHeld(String input, String key) {
+        // Called with holds locked, so a release cannot slip in between lookup and pin
+        if (holds.containsKey(input) && !pinned.containsKey(input)) {
+            staged.pin(key);
+            pinned.put(input, key);
+        }
+    }
+
+    private static final class Meta {
+        long size = -1;
+        long lastModified = -1;
+        String name;
+    }
+
+    private Meta query(Uri uri) {
+        Meta meta = new Meta();
+        try (Cursor cursor = resolver.query(uri, null, null, null, null)) {
+            if (cursor != null && cursor.moveToFirst()) {
+                meta.size = longColumn(cursor, OpenableColumns.SIZE);
+                meta.lastModified = longColumn(cursor, DocumentsContract.Document.COLUMN_LAST_MODIFIED);
+                int nameColumn = cursor.getColumnIndex(OpenableColumns.DISPLAY_NAME);
+                meta.name = nameColumn >= 0 && !cursor.isNull(nameColumn) ? cursor.getString(nameColumn) : null;
+            }
+        } catch (RuntimeException e) {
+            Log.w(TAG, "cannot query " + uri, e);
+        }
+        return meta;
+    }
+
+    private static String stagingKey(Uri uri, Meta meta) {
+        // Size and mtime stand in for the content; providers that report neither are
+        // keyed on the URI alone and re-staged only when the cached copy is evicted
+        return IoUtils.sha1(uri + "|" + meta.size + "|" + meta.lastModified) + "." + IoUtils.extension(meta.name, "mp4");
+    }
+
+    private static long longColumn(Cursor cursor, String column) {
+        int index = cursor.getColumnIndex(column);
+        return index >= 0 && !cursor.isNull(index) ? cursor.getLong(index) : -1;
+    }
+}
@@ -0,0 +1,120 @@
+package com.truvideo.video;
+
+import android.system.ErrnoException;
+import android.system.Os;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * File helpers shared by the plugin's caches. Copies use channel transfers so large
+ * files move without going through byte-array buffers.
+ */
+final class IoUtils {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final long STREAM_CHUNK_BYTES = 8L * 1024 * 1024;
+
+    private IoUtils() {
+    }
+
+    static void copy(File from, File to) throws IOException {
+        try (FileInputStream in = new FileInputStream(from)) {
+            transfer(in.getChannel(), to);
+        }
+    }
+
+    static void linkOrCopy(File from, File to) throws IOException {
+        // A hard link shares the data blocks, so large outputs cost nothing extra on the
+        // same volume; other volumes fall back to a channel copy
+        File parent = to.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+        to.delete();
+        try {
+            Os.link(from.getPath(), to.getPath());
+            return;
+        } catch (ErrnoException e) {
+            // fall through to a copy
+        }
+        copy(from, to);
+    }
+
+    static void transfer(FileChannel source, File to) throws IOException {
+        // Writes to a temp file first so readers never see a partial copy
+        File parent = to.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+        File tmp = new File(to.getPath() + ".part");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            FileChannel target = out.getChannel();
+            long position = 0;
+            long size = source.size();
+            if (size > 0) {
+                while (position < size) {
+                    long moved = source.transferTo(position, size - position, target);
+                    if (moved <= 0) {
+                        break;
+                    }
+                    position += moved;
+                }
+            } else {
+                // Pipes from content providers report no size; read until the end of stream
+                long moved;
+                while ((moved = target.transferFrom(source, position, STREAM_CHUNK_BYTES)) > 0) {
+                    position += moved;
+                }
+            }
+        }
+        if (!tmp.renameTo(to)) {
+            tmp.delete();
+            throw new IOException("Cannot replace " + to);
+        }
+    }
+
+    static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    static String extension(String path, String fallback) {
+        if (path != null) {
+            int dot = path.lastIndexOf('.');
+            if (dot > path.lastIndexOf('/') && dot < path.length() - 1) {
+                return path.substring(dot + 1);
+            }
+        }
+        return fallback;
+    }
+
+    static String sha1(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            return hex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String hex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new String(chars);
+    }
+}
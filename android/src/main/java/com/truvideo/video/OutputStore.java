@@ -0,0 +1,324 @@
+package com.truvideo.video;
+
+import android.system.ErrnoException;
+import android.system.Os;
+import android.util.Log;
+
+import com.getcapacitor.JSObject;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the outputs the plugin writes under its managed root (where getResultPath points)
+ * and keeps them under a byte quota by deleting the oldest unpinned ones. Before a job
+ * starts, {@link #preflight} estimates the space it needs from its inputs and fails fast
+ * when the target volume cannot hold it. Without a quota nothing is ever evicted.
+ */
+class OutputStore {
+
+    private static final String TAG = "OutputStore";
+    private static final long SAVE_DELAY_MS = 1000;
+    // Transcodes rarely grow past their inputs; the headroom covers container overhead
+    private static final double SIZE_FACTOR = 1.1;
+    private static final long HEADROOM_BYTES = 16L * 1024 * 1024;
+
+    private static final class Output {
+        final long bytes;
+        final long createdAt;
+        boolean pinned;
+
+        Output(long bytes, long createdAt, boolean pinned) {
+            this.bytes = bytes;
+            this.createdAt = createdAt;
+            this.pinned = pinned;
+        }
+    }
+
+    private final File root;
+    private final File store;
+    private final long quotaBytes;
+    // Canonical path -> output, oldest first
+    private final LinkedHashMap<String, Output> entries = new LinkedHashMap<>();
+    private final ScheduledExecutorService writer;
+    private long totalBytes;
+    private boolean loaded;
+    private boolean saveScheduled;
+
+    OutputStore(File root, File store, long quotaBytes, ScheduledExecutorService writer) {
+        this.root = root;
+        this.store = store;
+        this.quotaBytes = quotaBytes;
+        this.writer = writer;
+    }
+
+    void preflight(long inputBytes, long stagingBytes, File stagingDir, String outputPath, double multiplier) throws IOException {
+        // Rejects the job up front when the volumes cannot hold the estimated result plus
+        // the staged copies of its inputs. Everything is checked before anything is deleted:
+        // managed outputs are evicted only under a quota, and only when that covers the gap.
+        long outputBytes = (long) (inputBytes * SIZE_FACTOR * multiplier) + HEADROOM_BYTES;
+        File target = outputPath != null ? new File(outputPath).getAbsoluteFile() : root;
+        boolean managed = isManaged(target);
+        boolean sharedVolume = stagingBytes > 0 && sameVolume(stagingDir, target);
+        long required = outputBytes + (sharedVolume ? stagingBytes : 0);
+
+        if (stagingBytes > 0 && !sharedVolume) {
+            ensureFree(stagingDir, stagingBytes + HEADROOM_BYTES, 0);
+        }
+        synchronized (this) {
+            load();
+            long evictable = managed && quotaBytes > 0 ? unpinnedBytes() : 0;
+            ensureFree(target, required, evictable);
+            if (evictable == 0) {
+                return;
+            }
+            evict(quotaBytes - outputBytes);
+            long usable = usableSpace(target);
+            if (usable < required) {
+                evict(totalBytes - (required - usable));
+            }
+            ensureFree(target, required, 0);
+        }
+    }
+
+    private static void ensureFree(File target, long required, long reclaimable) throws IOException {
+        long usable = usableSpace(target);
+        if (usable + reclaimable < required) {
+            throw new IOException(String.format(Locale.US,
+                    "Not enough storage: about %d MB needed, %d MB free", required >> 20, usable >> 20));
+        }
+    }
+
+    void record(String path) {
+        File file = canonical(path);
+        if (file == null || !file.isFile() || !isManaged(file)) {
+            return;
+        }
+        synchronized (this) {
+            load();
+            Output previous = entries.remove(file.getPath());
+            if (previous != null) {
+                totalBytes -= previous.bytes;
+            }
+            // Makes room before adding, so the new output itself is never the one evicted
+            if (quotaBytes > 0) {
+                evict(quotaBytes - file.length());
+            }
+            entries.put(file.getPath(), new Output(file.length(), System.currentTimeMillis(), previous != null && previous.pinned));
+            totalBytes += file.length();
+            scheduleSave();
+        }
+    }
+
+    synchronized void discardPartial(String path) {
+        // Removes what a failed job left behind under the root. Recorded outputs are
+        // complete results of an earlier run and are kept.
+        File file = canonical(path);
+        load();
+        if (file == null || !isManaged(file) || entries.containsKey(file.getPath())) {
+            return;
+        }
+        file.delete();
+        new File(file.getPath() + ".part").delete();
+    }
+
+    synchronized boolean remove(String path) {
+        // Deletes a managed output along with its request; pinned outputs are left alone
+        File file = canonical(path);
+        load();
+        Output entry = file != null ? entries.get(file.getPath()) : null;
+        if (entry == null || entry.pinned) {
+            return false;
+        }
+        file.delete();
+        entries.remove(file.getPath());
+        totalBytes -= entry.bytes;
+        scheduleSave();
+        return true;
+    }
+
+    synchronized boolean pin(String path, boolean pinned) {
+        File file = canonical(path);
+        load();
+        Output entry = file != null ? entries.get(file.getPath()) : null;
+        if (entry == null) {
+            return false;
+        }
+        entry.pinned = pinned;
+        scheduleSave();
+        return true;
+    }
+
+    synchronized JSObject stats() {
+        load();
+        int pinned = 0;
+        for (Output entry : entries.values()) {
+            if (entry.pinned) {
+                pinned++;
+            }
+        }
+        JSObject stats = new JSObject();
+        stats.put("count", entries.size());
+        stats.put("pinned", pinned);
+        stats.put("bytes", totalBytes);
+        stats.put("quotaBytes", quotaBytes);
+        stats.put("freeBytes", usableSpace(root));
+        return stats;
+    }
+
+    private long unpinnedBytes() {
+        long bytes = 0;
+        for (Output entry : entries.values()) {
+            if (!entry.pinned) {
+                bytes += entry.bytes;
+            }
+        }
+        return bytes;
+    }
+
+    private void evict(long targetBytes) {
+        // Deletes the oldest unpinned outputs until the tracked total fits targetBytes
+        Iterator<Map.Entry<String, Output>> it = entries.entrySet().iterator();
+        boolean changed = false;
+        while (totalBytes > Math.max(0, targetBytes) && it.hasNext()) {
+            Map.Entry<String, Output> eldest = it.next();
+            if (eldest.getValue().pinned) {
+                continue;
+            }
+            new File(eldest.getKey()).delete();
+            totalBytes -= eldest.getValue().bytes;
+            it.remove();
+            changed = true;
+        }
+        if (changed) {
+            scheduleSave();
+        }
+    }
+
+    private boolean isManaged(File file) {
+        File managedRoot = canonical(root.getPath());
+        File candidate = canonical(file.getPath());
+        return managedRoot != null && candidate != null
+                && candidate.getPath().startsWith(managedRoot.getPath() + File.separator);
+    }
+
+    private static long usableSpace(File target) {
+        File dir = existing(target);
+        return dir != null ? dir.getUsableSpace() : 0;
+    }
+
+    private static boolean sameVolume(File a, File b) {
+        // Unknown counts as shared, which only makes the estimate stricter
+        File first = existing(a);
+        File second = existing(b);
+        if (first == null || second == null) {
+            return true;
+        }
+        try {
+            return Os.stat(first.getPath()).st_dev == Os.stat(second.getPath()).st_dev;
+        } catch (ErrnoException e) {
+            return true;
+        }
+    }
+
+    private static File existing(File target) {
+        // The output may not exist yet; use the nearest existing parent
+        File dir = target;
+        while (dir != null && !dir.exists()) {
+            dir = dir.getParentFile();
+        }
+        return dir;
+    }
+
+    private static File canonical(String path) {
+        if (path == null) {
+            return null;
+        }
+        try {
+            return new File(path.startsWith("file://") ? path.substring("file://".length()) : path).getCanonicalFile();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!store.exists()) {
+            return;
+        }
+        try {
+            JSONArray array = new JSONArray(JsonFiles.read(store));
+            for (int i = 0; i < array.length(); i++) {
+                JSONObject item = array.getJSONObject(i);
+                File file = new File(item.getString("path"));
+                // Outputs deleted behind our back are simply forgotten
+                if (!file.isFile()) {
+                    continue;
+                }
+                entries.put(file.getPath(), new Output(file.length(), item.getLong("createdAt"), item.optBoolean("pinned")));
+                totalBytes += file.length();
+            }
+        } catch (IOException | JSONException e) {
+            Log.e(TAG, "cannot read " + store, e);
+        }
+    }
+
+    private void scheduleSave() {
+        if (saveScheduled) {
+            return;
+        }
+        saveScheduled = true;
+        try {
+            writer.schedule(this::save, SAVE_DELAY_MS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // The plugin is shutting down; write on this thread instead
+            save();
+        }
+    }
+
+    void flush() {
+        // Writes a pending change now; used on teardown, after the writer has stopped
+        boolean pending;
+        synchronized (this) {
+            pending = saveScheduled;
+        }
+        if (pending) {
+            save();
+        }
+    }
+
+    private void save() {
+        String content;
+        synchronized (this) {
+            saveScheduled = false;
+            JSONArray array = new JSONArray();
+            for (Map.Entry<String, Output> entry : entries.entrySet()) {
+                JSObject item = new JSObject();
+                item.put("path", entry.getKey());
+                item.put("createdAt", entry.getValue().createdAt);
+                item.put("pinned", entry.getValue().pinned);
+                array.put(item);
+            }
+            content = array.toString();
+        }
+        try {
+            JsonFiles.write(store, content);
+        } catch (IOException e) {
+            Log.e(TAG, "cannot write " + store, e);
+        }
+    }
+}
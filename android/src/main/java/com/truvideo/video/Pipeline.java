@@ -0,0 +1,127 @@
+package com.truvideo.video;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An ordered list of stages run natively on one input video. Video stages (cleanNoise,
+ * encode) replace the current video with their output; thumbnail stages read the current
+ * video and leave it as is. Outputs without a resultPath live in a temp dir and are
+ * deleted as soon as the next video stage has consumed them.
+ */
+class Pipeline {
+
+    static final String CLEAN_NOISE = "cleanNoise";
+    static final String ENCODE = "encode";
+    static final String THUMBNAIL = "thumbnail";
+    private static final List<String> OPERATIONS = Arrays.asList(CLEAN_NOISE, ENCODE, THUMBNAIL);
+
+    static final class Stage {
+        final String op;
+        final JSONObject spec;
+        final String resultPath;
+        // Encode settings, parsed up front so a bad config fails before any stage runs
+        final VideoConfig config;
+
+        Stage(String op, JSONObject spec) throws JSONException {
+            this.op = op;
+            this.spec = spec;
+            this.resultPath = spec.optString("resultPath", null);
+            Object config = spec.opt("config");
+            if (config instanceof String) {
+                config = new JSONObject((String) config);
+            }
+            this.config = VideoConfig.parse(config instanceof JSONObject ? (JSONObject) config : new JSONObject());
+        }
+
+        boolean producesVideo() {
+            return !THUMBNAIL.equals(op);
+        }
+    }
+
+    final List<Stage> stages = new ArrayList<>();
+    final File dir;
+    private final JSArray timings = new JSArray();
+    private final long startNanos = System.nanoTime();
+    private String current;
+    private boolean currentTemp;
+
+    private Pipeline(String input, File dir) {
+        this.current = input;
+        this.dir = dir;
+    }
+
+    static Pipeline parse(String input, String stagesJson, File dir) throws JSONException {
+        if (stagesJson == null) {
+            throw new JSONException("stages is required");
+        }
+        Pipeline pipeline = new Pipeline(input, dir);
+        JSONArray array = new JSONArray(stagesJson);
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject spec = array.getJSONObject(i);
+            String op = spec.getString("op");
+            if (!OPERATIONS.contains(op)) {
+                throw new JSONException("Stage " + i + ": unknown op " + op);
+            }
+            pipeline.stages.add(new Stage(op, spec));
+        }
+        if (pipeline.stages.isEmpty()) {
+            throw new JSONException("At least one stage is required");
+        }
+        if (pipeline.stages.get(pipeline.stages.size() - 1).resultPath == null) {
+            throw new JSONException("The last stage needs a resultPath");
+        }
+        return pipeline;
+    }
+
+    String input() {
+        return current;
+    }
+
+    String outputFor(int index) {
+        Stage stage = stages.get(index);
+        if (stage.resultPath != null) {
+            return stage.resultPath;
+        }
+        String extension = stage.producesVideo() ? IoUtils.extension(current, "mp4") : "png";
+        return new File(dir, "stage_" + index + "." + extension).getPath();
+    }
+
+    void completed(int index, String output, long elapsedMs) {
+        Stage stage = stages.get(index);
+        if (stage.producesVideo()) {
+            // The previous video has been read in full, so a temp copy can go now
+            if (currentTemp) {
+                new File(current).delete();
+            }
+            current = output;
+            currentTemp = stage.resultPath == null;
+        }
+        JSObject timing = new JSObject();
+        timing.put("op", stage.op);
+        timing.put("output", stage.resultPath != null ? output : null);
+        timing.put("durationMs", elapsedMs);
+        timings.put(timing);
+    }
+
+    JSArray timings() {
+        return timings;
+    }
+
+    long elapsedMs() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    void cleanup() {
+        IoUtils.deleteRecursively(dir);
+    }
+}
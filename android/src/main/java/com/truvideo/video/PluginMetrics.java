@@ -0,0 +1,194 @@
+package com.truvideo.video;
+
+import android.util.Log;
+
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-method call counters and fixed-bucket latency histograms, measured from the
+ * moment a plugin method starts until its call is resolved or rejected. Recording is a
+ * map lookup plus a few atomic increments, so it stays on in production builds.
+ */
+class PluginMetrics {
+
+    private static final String TAG = "PluginMetrics";
+    private static final long MAX_DUMP_BYTES = 1024 * 1024;
+
+    // Upper bounds in milliseconds; the last bucket catches everything slower
+    private static final long[] BUCKETS_MS = {
+            1, 2, 5, 10, 25, 50, 100, 250, 500, 1_000, 2_500, 5_000, 10_000, 30_000, 60_000, 120_000, 300_000, 600_000
+    };
+
+    static final class MethodStats {
+        final AtomicLong calls = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong timeouts = new AtomicLong();
+        final AtomicLong inFlight = new AtomicLong();
+        final AtomicLong maxMs = new AtomicLong();
+        final AtomicLongArray buckets = new AtomicLongArray(BUCKETS_MS.length + 1);
+        // Cold-start cost: when the first result came back after plugin load, and how long
+        // that first call took; -1 until the method has finished once
+        final AtomicLong firstResultMs = new AtomicLong(-1);
+        final AtomicLong firstCallMs = new AtomicLong(-1);
+
+        void record(long elapsedMs) {
+            int bucket = 0;
+            while (bucket < BUCKETS_MS.length && elapsedMs > BUCKETS_MS[bucket]) {
+                bucket++;
+            }
+            buckets.incrementAndGet(bucket);
+            long max;
+            while (elapsedMs > (max = maxMs.get()) && !maxMs.compareAndSet(max, elapsedMs)) {
+                // retry
+            }
+        }
+
+        long percentile(double quantile) {
+            long total = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                total += buckets.get(i);
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS_MS.length; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return Math.min(BUCKETS_MS[i], maxMs.get());
+                }
+            }
+            return maxMs.get();
+        }
+
+        JSObject toJSObject() {
+            JSObject obj = new JSObject();
+            obj.put("calls", calls.get());
+            obj.put("errors", errors.get());
+            obj.put("timeouts", timeouts.get());
+            obj.put("inFlight", inFlight.get());
+            obj.put("p50", percentile(0.50));
+            obj.put("p95", percentile(0.95));
+            obj.put("p99", percentile(0.99));
+            obj.put("max", maxMs.get());
+            if (firstResultMs.get() >= 0) {
+                obj.put("firstResultMs", firstResultMs.get());
+                obj.put("firstCallMs", firstCallMs.get());
+            }
+            return obj;
+        }
+    }
+
+    private static final class Start {
+        final MethodStats stats;
+        final long nanos;
+
+        Start(MethodStats stats, long nanos) {
+            this.stats = stats;
+            this.nanos = nanos;
+        }
+    }
+
+    private final long createdNanos = System.nanoTime();
+    private final Map<String, MethodStats> methods = new ConcurrentHashMap<>();
+    // Callback id -> when that call started
+    private final Map<String, Start> started = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> dumper;
+
+    PluginMetrics(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    void begin(PluginCall call) {
+        MethodStats stats = stats(call.getMethodName());
+        stats.calls.incrementAndGet();
+        stats.inFlight.incrementAndGet();
+        started.put(call.getCallbackId(), new Start(stats, System.nanoTime()));
+    }
+
+    void end(PluginCall call, boolean error) {
+        Start start = started.remove(call.getCallbackId());
+        if (start == null) {
+            return;
+        }
+        start.stats.inFlight.decrementAndGet();
+        if (error) {
+            start.stats.errors.incrementAndGet();
+        }
+        long now = System.nanoTime();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(now - start.nanos);
+        if (start.stats.firstResultMs.compareAndSet(-1, TimeUnit.NANOSECONDS.toMillis(now - createdNanos))) {
+            start.stats.firstCallMs.set(elapsedMs);
+        }
+        start.stats.record(elapsedMs);
+    }
+
+    void timedOut(PluginCall call) {
+        // A timeout also counts as an error
+        Start start = started.get(call.getCallbackId());
+        if (start != null) {
+            start.stats.timeouts.incrementAndGet();
+        }
+        end(call, true);
+    }
+
+    MethodStats stats(String method) {
+        MethodStats stats = methods.get(method);
+        if (stats == null) {
+            methods.putIfAbsent(method, new MethodStats());
+            stats = methods.get(method);
+        }
+        return stats;
+    }
+
+    JSObject snapshot() {
+        JSObject result = new JSObject();
+        for (Map.Entry<String, MethodStats> entry : new TreeMap<>(methods).entrySet()) {
+            result.put(entry.getKey(), entry.getValue().toJSObject());
+        }
+        return result;
+    }
+
+    synchronized void startDump(File file, long intervalMs) {
+        // Appends one JSON line per interval; the file rolls over to .1 past MAX_DUMP_BYTES
+        if (dumper != null || intervalMs <= 0) {
+            return;
+        }
+        dumper = scheduler.scheduleAtFixedRate(() -> {
+            JSObject line = new JSObject();
+            line.put("time", System.currentTimeMillis());
+            line.put("methods", snapshot());
+            try {
+                File parent = file.getParentFile();
+                if (parent != null) {
+                    parent.mkdirs();
+                }
+                if (file.length() > MAX_DUMP_BYTES) {
+                    file.renameTo(new File(file.getPath() + ".1"));
+                }
+                try (OutputStream out = new FileOutputStream(file, true)) {
+                    out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+                }
+            } catch (IOException e) {
+                Log.w(TAG, "cannot write " + file, e);
+            }
+        }, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+}
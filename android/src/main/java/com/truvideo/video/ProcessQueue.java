@@ -0,0 +1,232 @@
+package com.truvideo.video;
+
+import android.util.Log;
+
+import com.truvideo.sdk.video.model.TruvideoSdkVideoRequest;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import truvideo.sdk.common.exceptions.TruvideoSdkException;
+
+/**
+ * Queue of request ids waiting for {@code TruvideoSdkVideoRequest.process}. Every change
+ * is written to a small JSON journal so jobs that were queued or running when the
+ * process died are picked up again by {@link #restore()}.
+ */
+class ProcessQueue {
+
+    private static final String TAG = "ProcessQueue";
+
+    static final int PRIORITY_BACKGROUND = 0;
+    static final int PRIORITY_USER = 10;
+
+    static final String STATE_QUEUED = "queued";
+    static final String STATE_RUNNING = "running";
+
+    interface Listener {
+        // error is null when processing succeeded; cached means the output came from the
+        // transcode memo and the request itself was deleted instead of processed
+        void onFinished(TruvideoSdkVideoRequest request, boolean cached, TruvideoSdkException error);
+    }
+
+    interface Runner {
+        void process(String requestId, Listener listener);
+    }
+
+    private static final class Entry {
+        final String requestId;
+        final int priority;
+        final long enqueuedAt;
+        String state = STATE_QUEUED;
+        final List<Listener> listeners = new ArrayList<>();
+
+        Entry(String requestId, int priority, long enqueuedAt) {
+            this.requestId = requestId;
+            this.priority = priority;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    private final File journal;
+    private final BoundedExecutor executor;
+    private final Runner runner;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    // Journal writes happen off the caller thread, one at a time, so this must be serial
+    private final ExecutorService writer;
+
+    ProcessQueue(File journal, BoundedExecutor executor, Runner runner, ExecutorService writer) {
+        this.journal = journal;
+        this.executor = executor;
+        this.runner = runner;
+        this.writer = writer;
+    }
+
+    void enqueue(String requestId, int priority, Listener listener) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(requestId);
+            if (entry != null) {
+                // Already queued or running: just wait for the same result
+                if (listener != null) {
+                    entry.listeners.add(listener);
+                }
+                return;
+            }
+            entry = new Entry(requestId, priority, System.currentTimeMillis());
+            if (listener != null) {
+                entry.listeners.add(listener);
+            }
+            entries.put(requestId, entry);
+            persist();
+        }
+        schedule(entry);
+    }
+
+    void restore() {
+        // Runs on the journal thread so the read happens before any later write replaces it.
+        // Entries saved as "running" were interrupted and go back to the queue.
+        writer.execute(() -> {
+            List<Entry> restored = new ArrayList<>();
+            synchronized (this) {
+                for (Entry entry : read()) {
+                    if (!entries.containsKey(entry.requestId)) {
+                        entries.put(entry.requestId, entry);
+                        restored.add(entry);
+                    }
+                }
+            }
+            for (Entry entry : restored) {
+                schedule(entry);
+            }
+        });
+    }
+
+    List<Listener> remove(String requestId) {
+        // Drops a job that has not started yet and hands back whoever was waiting on it;
+        // a running job is left alone and ends when the SDK stops it
+        List<Listener> listeners;
+        synchronized (this) {
+            Entry entry = entries.get(requestId);
+            if (entry == null || !STATE_QUEUED.equals(entry.state)) {
+                return new ArrayList<>();
+            }
+            entries.remove(requestId);
+            listeners = new ArrayList<>(entry.listeners);
+            persist();
+        }
+        return listeners;
+    }
+
+    synchronized JSONArray snapshot() {
+        JSONArray array = new JSONArray();
+        for (Entry entry : entries.values()) {
+            array.put(toJson(entry));
+        }
+        return array;
+    }
+
+    private void schedule(Entry entry) {
+        executor.execute(entry.priority, done -> {
+            synchronized (this) {
+                // Removed while it waited for a slot
+                if (entries.get(entry.requestId) != entry) {
+                    done.run();
+                    return;
+                }
+                entry.state = STATE_RUNNING;
+                persist();
+            }
+            runner.process(entry.requestId, (request, cached, error) -> {
+                done.run();
+                finish(entry, request, cached, error);
+            });
+        }, e -> finish(entry, null, false, new TruvideoSdkException(e.getMessage() != null ? e.getMessage() : e.toString())));
+    }
+
+    private void finish(Entry entry, TruvideoSdkVideoRequest request, boolean cached, TruvideoSdkException error) {
+        List<Listener> listeners;
+        synchronized (this) {
+            // Only this entry; the id may have been queued again since
+            entries.remove(entry.requestId, entry);
+            listeners = new ArrayList<>(entry.listeners);
+            entry.listeners.clear();
+            persist();
+        }
+        for (Listener listener : listeners) {
+            listener.onFinished(request, cached, error);
+        }
+    }
+
+    private void persist() {
+        // Snapshot and submission happen under one lock, so journal writes reach the
+        // writer thread in the order the changes were made
+        synchronized (this) {
+            String content = snapshot().toString();
+            try {
+                writer.execute(() -> write(content));
+            } catch (RejectedExecutionException e) {
+                // The plugin is shutting down; write on this thread instead
+                write(content);
+            }
+        }
+    }
+
+    void flush() {
+        // Writes the journal on the caller's thread; used on teardown, after the writer has
+        // stopped and may have dropped writes still queued on it
+        String content;
+        synchronized (this) {
+            content = snapshot().toString();
+        }
+        write(content);
+    }
+
+    private void write(String content) {
+        try {
+            JsonFiles.write(journal, content);
+        } catch (IOException e) {
+            Log.e(TAG, "journal write failed", e);
+        }
+    }
+
+    private List<Entry> read() {
+        List<Entry> list = new ArrayList<>();
+        if (!journal.exists()) {
+            return list;
+        }
+        try {
+            JSONArray array = new JSONArray(JsonFiles.read(journal));
+            for (int i = 0; i < array.length(); i++) {
+                JSONObject item = array.getJSONObject(i);
+                list.add(new Entry(item.getString("id"), item.optInt("priority", PRIORITY_BACKGROUND), item.optLong("enqueuedAt", 0)));
+            }
+        } catch (IOException | JSONException e) {
+            Log.e(TAG, "journal read failed", e);
+        }
+        return list;
+    }
+
+    private static JSONObject toJson(Entry entry) {
+        JSONObject item = new JSONObject();
+        try {
+            item.put("id", entry.requestId);
+            item.put("priority", entry.priority);
+            item.put("state", entry.state);
+            item.put("enqueuedAt", entry.enqueuedAt);
+        } catch (JSONException e) {
+            throw new IllegalStateException(e);
+        }
+        return item;
+    }
+}
@@ -0,0 +1,63 @@
+package com.truvideo.video;
+
+import com.getcapacitor.JSObject;
+import com.truvideo.sdk.video.model.TruvideoSdkVideoRequest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU map of request handles by id, so lifecycle calls on a request the plugin
+ * has just built or looked up skip {@code TruvideoSdkVideo.getRequestById}. Entries are
+ * dropped whenever the plugin changes the request's status.
+ */
+class RequestCache {
+
+    private final int maxSize;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final LinkedHashMap<String, TruvideoSdkVideoRequest> map;
+
+    RequestCache(int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+        this.map = new LinkedHashMap<String, TruvideoSdkVideoRequest>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TruvideoSdkVideoRequest> eldest) {
+                return size() > RequestCache.this.maxSize;
+            }
+        };
+    }
+
+    TruvideoSdkVideoRequest get(String requestId) {
+        TruvideoSdkVideoRequest request;
+        synchronized (map) {
+            request = map.get(requestId);
+        }
+        (request != null ? hits : misses).incrementAndGet();
+        return request;
+    }
+
+    void put(TruvideoSdkVideoRequest request) {
+        synchronized (map) {
+            map.put(request.getId(), request);
+        }
+    }
+
+    void invalidate(String requestId) {
+        synchronized (map) {
+            map.remove(requestId);
+        }
+    }
+
+    JSObject stats() {
+        JSObject stats = new JSObject();
+        synchronized (map) {
+            stats.put("size", map.size());
+        }
+        stats.put("maxSize", maxSize);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        return stats;
+    }
+}
@@ -0,0 +1,77 @@
+package com.truvideo.video;
+
+import com.getcapacitor.JSObject;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate-limits request events per request id. The first event for an id goes out right
+ * away; anything published during the following window replaces the previous pending
+ * event, and only the latest one is sent when the window closes.
+ */
+class RequestEvents {
+
+    static final String EVENT_NAME = "videoRequestStatus";
+
+    interface Sink {
+        void emit(JSObject event);
+    }
+
+    private static final class Slot {
+        JSObject pending;
+    }
+
+    private final Sink sink;
+    private final long intervalMs;
+    private final Map<String, Slot> slots = new HashMap<>();
+    private final ScheduledExecutorService timer;
+
+    RequestEvents(Sink sink, long intervalMs, ScheduledExecutorService timer) {
+        this.sink = sink;
+        this.intervalMs = intervalMs;
+        this.timer = timer;
+    }
+
+    void publish(String requestId, JSObject event) {
+        synchronized (this) {
+            Slot slot = slots.get(requestId);
+            if (slot != null) {
+                slot.pending = event;
+                return;
+            }
+            slots.put(requestId, new Slot());
+        }
+        sink.emit(event);
+        scheduleWindow(requestId);
+    }
+
+    private void scheduleWindow(String requestId) {
+        try {
+            timer.schedule(() -> closeWindow(requestId), intervalMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // The plugin is shutting down, so there is no listener left for the rest
+        }
+    }
+
+    private void closeWindow(String requestId) {
+        JSObject event;
+        synchronized (this) {
+            Slot slot = slots.get(requestId);
+            if (slot == null) {
+                return;
+            }
+            if (slot.pending == null) {
+                slots.remove(requestId);
+                return;
+            }
+            event = slot.pending;
+            slot.pending = null;
+        }
+        sink.emit(event);
+        scheduleWindow(requestId);
+    }
+}
@@ -0,0 +1,281 @@
+package com.truvideo.video;
+
+import android.util.Log;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.truvideo.sdk.video.model.TruvideoSdkVideoRequest;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summaries of every request the plugin has built or looked up, newest first, so
+ * listings are served without one SDK lookup per row. The index is saved to a JSON
+ * store and bounded to {@code maxEntries}, dropping the oldest requests first.
+ */
+class RequestIndex {
+
+    private static final String TAG = "RequestIndex";
+    private static final long SAVE_DELAY_MS = 1000;
+
+    static final class Row {
+        final String id;
+        final String type;
+        final String status;
+        final long createdAt;
+        final long updatedAt;
+        final String createdAtText;
+        final String updatedAtText;
+        final String resultPath;
+
+        Row(String id, String type, String status, long createdAt, String createdAtText, String updatedAtText, String resultPath) {
+            this.id = id;
+            this.type = type;
+            this.status = status;
+            this.createdAt = createdAt;
+            // Requests the SDK never stamped as updated count from their creation
+            long updated = toMillis(updatedAtText);
+            this.updatedAt = updated > 0 ? updated : createdAt;
+            this.createdAtText = createdAtText;
+            this.updatedAtText = updatedAtText;
+            this.resultPath = resultPath;
+        }
+
+        JSObject toJSObject() {
+            JSObject obj = new JSObject();
+            obj.put("id", id);
+            obj.put("createdAt", createdAtText);
+            obj.put("status", status);
+            obj.put("type", type);
+            obj.put("updatedAt", updatedAtText);
+            if (resultPath != null) {
+                obj.put("resultPath", resultPath);
+            }
+            return obj;
+        }
+    }
+
+    static final class Query {
+        Set<String> statuses;
+        Set<String> types;
+        Long createdAfter;
+        Long createdBefore;
+        Long updatedBefore;
+        String cursor;
+        int limit;
+    }
+
+    // Newest first; ids break ties so every row has a stable position for cursors
+    private static final Comparator<Row> ORDER = (a, b) ->
+            a.createdAt != b.createdAt ? Long.compare(b.createdAt, a.createdAt) : b.id.compareTo(a.id);
+
+    private final File store;
+    private final int maxEntries;
+    private final Map<String, Row> rows = new HashMap<>();
+    private final TreeSet<Row> ordered = new TreeSet<>(ORDER);
+    private final ScheduledExecutorService writer;
+    private boolean loaded;
+    private boolean saveScheduled;
+
+    RequestIndex(File store, int maxEntries, ScheduledExecutorService writer) {
+        this.store = store;
+        this.writer = writer;
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    synchronized void update(TruvideoSdkVideoRequest request, String resultPath) {
+        load();
+        Row previous = rows.get(request.getId());
+        if (resultPath == null && previous != null) {
+            resultPath = previous.resultPath;
+        }
+        put(new Row(
+                request.getId(),
+                request.getType().name(),
+                request.getStatus().name(),
+                toMillis(request.getCreatedAt()),
+                String.valueOf(request.getCreatedAt()),
+                String.valueOf(request.getUpdatedAt()),
+                resultPath
+        ));
+        while (rows.size() > maxEntries) {
+            rows.remove(ordered.pollLast().id);
+        }
+        scheduleSave();
+    }
+
+    synchronized void remove(String requestId) {
+        load();
+        Row row = rows.remove(requestId);
+        if (row != null) {
+            ordered.remove(row);
+            scheduleSave();
+        }
+    }
+
+    synchronized Row get(String requestId) {
+        load();
+        return rows.get(requestId);
+    }
+
+    synchronized List<Row> find(Query query) {
+        // Walks the rows after the cursor in index order until the page is full
+        load();
+        Row after = parseCursor(query.cursor);
+        Iterable<Row> candidates = after != null ? ordered.tailSet(after, false) : ordered;
+        List<Row> page = new ArrayList<>();
+        for (Row row : candidates) {
+            if (page.size() >= query.limit) {
+                break;
+            }
+            if (query.statuses != null && !query.statuses.contains(row.status)) {
+                continue;
+            }
+            if (query.types != null && !query.types.contains(row.type)) {
+                continue;
+            }
+            if (query.createdAfter != null && row.createdAt < query.createdAfter) {
+                continue;
+            }
+            if (query.createdBefore != null && row.createdAt > query.createdBefore) {
+                continue;
+            }
+            if (query.updatedBefore != null && row.updatedAt > query.updatedBefore) {
+                continue;
+            }
+            page.add(row);
+        }
+        return page;
+    }
+
+    static String cursor(Row row) {
+        // Position rather than id, so a page stays valid after its last row is deleted
+        return row.createdAt + ":" + row.id;
+    }
+
+    private static Row parseCursor(String cursor) {
+        int colon = cursor != null ? cursor.indexOf(':') : -1;
+        if (colon <= 0) {
+            return null;
+        }
+        try {
+            long createdAt = Long.parseLong(cursor.substring(0, colon));
+            return new Row(cursor.substring(colon + 1), null, null, createdAt, null, null, null);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    static JSArray toJSArray(List<Row> page) {
+        JSArray array = new JSArray();
+        for (Row row : page) {
+            array.put(row.toJSObject());
+        }
+        return array;
+    }
+
+    static long toMillis(Object timestamp) {
+        // The SDK reports timestamps as epoch millis; anything unparseable sorts as oldest
+        if (timestamp instanceof Number) {
+            return ((Number) timestamp).longValue();
+        }
+        try {
+            return timestamp != null ? Long.parseLong(timestamp.toString()) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    synchronized void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!store.exists()) {
+            return;
+        }
+        try {
+            JSONArray array = new JSONArray(JsonFiles.read(store));
+            for (int i = 0; i < array.length(); i++) {
+                JSONObject item = array.getJSONObject(i);
+                put(new Row(
+                        item.getString("id"),
+                        item.getString("type"),
+                        item.getString("status"),
+                        item.getLong("createdAtMillis"),
+                        item.getString("createdAt"),
+                        item.getString("updatedAt"),
+                        item.has("resultPath") ? item.getString("resultPath") : null
+                ));
+            }
+        } catch (IOException | JSONException e) {
+            Log.e(TAG, "cannot read " + store, e);
+        }
+    }
+
+    private void put(Row row) {
+        Row previous = rows.put(row.id, row);
+        if (previous != null) {
+            ordered.remove(previous);
+        }
+        ordered.add(row);
+    }
+
+    private void scheduleSave() {
+        if (saveScheduled) {
+            return;
+        }
+        saveScheduled = true;
+        try {
+            writer.schedule(this::save, SAVE_DELAY_MS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // The plugin is shutting down; write on this thread instead
+            save();
+        }
+    }
+
+    void flush() {
+        // Writes a pending change now; used on teardown, after the writer has stopped
+        boolean pending;
+        synchronized (this) {
+            pending = saveScheduled;
+        }
+        if (pending) {
+            save();
+        }
+    }
+
+    private void save() {
+        String content;
+        synchronized (this) {
+            saveScheduled = false;
+            JSONArray array = new JSONArray();
+            for (Row row : ordered) {
+                JSObject item = row.toJSObject();
+                item.put("createdAtMillis", row.createdAt);
+                array.put(item);
+            }
+            content = array.toString();
+        }
+        try {
+            JsonFiles.write(store, content);
+        } catch (IOException e) {
+            Log.e(TAG, "cannot write " + store, e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.truvideo.video;
+
+import androidx.annotation.NonNull;
+
+import com.getcapacitor.PluginCall;
+import com.truvideo.sdk.video.interfaces.TruvideoSdkVideoCallback;
+import com.truvideo.sdk.video.model.TruvideoSdkVideoRequest;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import kotlin.Unit;
+import truvideo.sdk.common.exceptions.TruvideoSdkException;
+
+/**
+ * State of one segmented encode: the call waiting on it, its temp directory and the
+ * SDK requests it has started. The job settles exactly once; settling cancels whatever
+ * is still running and deletes the temp segments.
+ */
+class SegmentJob {
+
+    final String id;
+    final PluginCall call;
+    final String resultPath;
+    final File dir;
+    final AtomicBoolean settled = new AtomicBoolean();
+    private final Set<TruvideoSdkVideoRequest> active = ConcurrentHashMap.newKeySet();
+    private final List<TruvideoSdkVideoRequest> created = new ArrayList<>();
+
+    SegmentJob(String id, PluginCall call, String resultPath, File dir) {
+        this.id = id;
+        this.call = call;
+        this.resultPath = resultPath;
+        this.dir = dir;
+    }
+
+    void started(TruvideoSdkVideoRequest request) {
+        synchronized (created) {
+            created.add(request);
+        }
+        active.add(request);
+        // Settled while the request was being built
+        if (settled.get()) {
+            cancel(request);
+        }
+    }
+
+    void finished(TruvideoSdkVideoRequest request) {
+        active.remove(request);
+    }
+
+    List<TruvideoSdkVideoRequest> created() {
+        synchronized (created) {
+            return new ArrayList<>(created);
+        }
+    }
+
+    boolean settle() {
+        if (!settled.compareAndSet(false, true)) {
+            return false;
+        }
+        for (TruvideoSdkVideoRequest request : active) {
+            cancel(request);
+        }
+        IoUtils.deleteRecursively(dir);
+        return true;
+    }
+
+    private static void cancel(TruvideoSdkVideoRequest request) {
+        request.cancel(new TruvideoSdkVideoCallback<Unit>() {
+            @Override
+            public void onComplete(Unit unit) {
+            }
+
+            @Override
+            public void onError(@NonNull TruvideoSdkException e) {
+                // Already finished; nothing to stop
+            }
+        });
+    }
+}
@@ -0,0 +1,122 @@
+package com.truvideo.video;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.getcapacitor.JSObject;
+import com.truvideo.sdk.video.interfaces.TruvideoSdkVideoCallback;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import truvideo.sdk.common.exceptions.TruvideoSdkException;
+
+/**
+ * Coalesces identical SDK operations that are in flight at the same time. The first
+ * caller for a key starts the work; later callers with the same key wait for that
+ * result or error instead of starting their own.
+ */
+class SingleFlight {
+
+    private static final String TAG = "SingleFlight";
+
+    interface Work<T> {
+        void start(TruvideoSdkVideoCallback<T> callback);
+    }
+
+    private static final class Counters {
+        final AtomicLong started = new AtomicLong();
+        final AtomicLong coalesced = new AtomicLong();
+    }
+
+    // Operation|key -> callbacks waiting on the flight
+    private final Map<String, List<TruvideoSdkVideoCallback<Object>>> flights = new HashMap<>();
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    <T> void run(String operation, String key, TruvideoSdkVideoCallback<T> callback, Work<T> work) {
+        String id = operation + "|" + key;
+        List<TruvideoSdkVideoCallback<Object>> waiters;
+        synchronized (flights) {
+            List<TruvideoSdkVideoCallback<Object>> existing = flights.get(id);
+            if (existing != null) {
+                existing.add((TruvideoSdkVideoCallback<Object>) callback);
+                counters(operation).coalesced.incrementAndGet();
+                return;
+            }
+            waiters = new ArrayList<>();
+            waiters.add((TruvideoSdkVideoCallback<Object>) callback);
+            flights.put(id, waiters);
+        }
+        counters(operation).started.incrementAndGet();
+        try {
+            work.start(new TruvideoSdkVideoCallback<T>() {
+                @Override
+                public void onComplete(T result) {
+                    for (TruvideoSdkVideoCallback<Object> waiter : land(id, waiters)) {
+                        waiter.onComplete(result);
+                    }
+                }
+
+                @Override
+                public void onError(@NonNull TruvideoSdkException e) {
+                    for (TruvideoSdkVideoCallback<Object> waiter : land(id, waiters)) {
+                        waiter.onError(e);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // A start that throws never calls back, so the flight lands here; left in place,
+            // it would hold every later caller for the key
+            Log.e(TAG, "cannot start " + operation, e);
+            TruvideoSdkException error = new TruvideoSdkException(e.getMessage() != null ? e.getMessage() : e.toString());
+            for (TruvideoSdkVideoCallback<Object> waiter : land(id, waiters)) {
+                waiter.onError(error);
+            }
+        }
+    }
+
+    void forget(String operation, String key) {
+        // Later callers start a fresh flight; callers already waiting still get the old result
+        synchronized (flights) {
+            flights.remove(operation + "|" + key);
+        }
+    }
+
+    JSObject stats() {
+        JSObject stats = new JSObject();
+        for (Map.Entry<String, Counters> entry : new TreeMap<>(counters).entrySet()) {
+            JSObject operation = new JSObject();
+            operation.put("started", entry.getValue().started.get());
+            operation.put("coalesced", entry.getValue().coalesced.get());
+            stats.put(entry.getKey(), operation);
+        }
+        return stats;
+    }
+
+    private List<TruvideoSdkVideoCallback<Object>> land(String id, List<TruvideoSdkVideoCallback<Object>> waiters) {
+        synchronized (flights) {
+            // Only this flight's entry; forget() may have replaced it with a newer one
+            flights.remove(id, waiters);
+            // Emptied so a flight that lands twice cannot answer its waiters twice
+            List<TruvideoSdkVideoCallback<Object>> landed = new ArrayList<>(waiters);
+            waiters.clear();
+            return landed;
+        }
+    }
+
+    private Counters counters(String operation) {
+        Counters result = counters.get(operation);
+        if (result == null) {
+            counters.putIfAbsent(operation, new Counters());
+            result = counters.get(operation);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,191 @@
+package com.truvideo.video;
+
+import android.os.Process;
+
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+
+import org.json.JSONArray;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opt-in span recorder for plugin calls and the SDK operations behind them. Finished
+ * spans go into a fixed-size ring buffer, so the oldest are overwritten once it is full,
+ * and {@link #export} writes them as Chrome trace-event JSON that Perfetto opens.
+ * While disabled, {@link #begin} returns null and nothing is recorded.
+ */
+class Tracer {
+
+    static final String CATEGORY_CALL = "call";
+    static final String CATEGORY_SDK = "sdk";
+    // Methods whose "path" option is a request id
+    private static final Set<String> REQUEST_METHODS = new HashSet<>(Arrays.asList(
+            "getRequestById", "processVideo", "delete", "cancelVideo"
+    ));
+
+    static final class Span {
+        final long id;
+        final String category;
+        final String name;
+        final String method;
+        final long startNanos;
+        final long threadId;
+        final String threadName;
+        String requestId;
+        long endNanos;
+        long endThreadId;
+        boolean error;
+
+        Span(long id, String category, String name, String method, long startNanos) {
+            this.id = id;
+            this.category = category;
+            this.name = name;
+            this.method = method;
+            this.startNanos = startNanos;
+            Thread thread = Thread.currentThread();
+            this.threadId = thread.getId();
+            this.threadName = thread.getName();
+        }
+    }
+
+    private final Span[] ring;
+    private final long originNanos = System.nanoTime();
+    private final AtomicLong ids = new AtomicLong();
+    // Callback id -> span of the plugin call, open until the call settles
+    private final Map<String, Span> calls = new ConcurrentHashMap<>();
+    private volatile boolean enabled;
+    private int next;
+    private long recorded;
+
+    Tracer(int capacity, boolean enabled) {
+        this.ring = new Span[Math.max(1, capacity)];
+        this.enabled = enabled;
+    }
+
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            calls.clear();
+        }
+    }
+
+    Span begin(String category, String name, String method) {
+        if (!enabled) {
+            return null;
+        }
+        return new Span(ids.incrementAndGet(), category, name, method, System.nanoTime());
+    }
+
+    void end(Span span, String requestId, boolean error) {
+        if (span == null) {
+            return;
+        }
+        span.endNanos = System.nanoTime();
+        span.endThreadId = Thread.currentThread().getId();
+        if (requestId != null) {
+            span.requestId = requestId;
+        }
+        span.error = error;
+        synchronized (this) {
+            ring[next] = span;
+            next = (next + 1) % ring.length;
+            recorded++;
+        }
+    }
+
+    void beginCall(PluginCall call) {
+        Span span = begin(CATEGORY_CALL, call.getMethodName(), call.getMethodName());
+        if (span != null) {
+            if (REQUEST_METHODS.contains(call.getMethodName())) {
+                span.requestId = call.getString("path");
+            }
+            calls.put(call.getCallbackId(), span);
+        }
+    }
+
+    void endCall(PluginCall call, boolean error) {
+        end(calls.remove(call.getCallbackId()), null, error);
+    }
+
+    synchronized void clear() {
+        Arrays.fill(ring, null);
+        next = 0;
+        recorded = 0;
+    }
+
+    JSObject export(File file) throws IOException {
+        // Each span becomes an async begin/end pair so overlapping work on one thread
+        // stays readable; thread names are emitted as metadata events
+        Span[] spans;
+        long dropped;
+        synchronized (this) {
+            spans = new Span[(int) Math.min(recorded, ring.length)];
+            int start = recorded > ring.length ? next : 0;
+            for (int i = 0; i < spans.length; i++) {
+                spans[i] = ring[(start + i) % ring.length];
+            }
+            dropped = Math.max(0, recorded - ring.length);
+        }
+        int pid = Process.myPid();
+        JSONArray events = new JSONArray();
+        Map<Long, String> threads = new LinkedHashMap<>();
+        for (Span span : spans) {
+            threads.put(span.threadId, span.threadName);
+            JSObject args = new JSObject();
+            if (span.method != null) {
+                args.put("method", span.method);
+            }
+            if (span.requestId != null) {
+                args.put("requestId", span.requestId);
+            }
+            args.put("thread", span.threadName);
+            if (span.error) {
+                args.put("error", true);
+            }
+            events.put(event(span, "b", span.startNanos, span.threadId, pid).put("args", args));
+            events.put(event(span, "e", span.endNanos, span.endThreadId, pid));
+        }
+        for (Map.Entry<Long, String> thread : threads.entrySet()) {
+            JSObject args = new JSObject();
+            args.put("name", thread.getValue());
+            JSObject meta = new JSObject();
+            meta.put("name", "thread_name");
+            meta.put("ph", "M");
+            meta.put("pid", pid);
+            meta.put("tid", thread.getKey());
+            meta.put("args", args);
+            events.put(meta);
+        }
+        JSObject trace = new JSObject();
+        trace.put("traceEvents", events);
+        trace.put("displayTimeUnit", "ms");
+        JsonFiles.write(file, trace.toString());
+
+        JSObject result = new JSObject();
+        result.put("spans", spans.length);
+        result.put("dropped", dropped);
+        return result;
+    }
+
+    private JSObject event(Span span, String phase, long nanos, long threadId, int pid) {
+        JSObject event = new JSObject();
+        event.put("name", span.name);
+        event.put("cat", span.category);
+        event.put("ph", phase);
+        event.put("id", "0x" + Long.toHexString(span.id));
+        event.put("ts", TimeUnit.NANOSECONDS.toMicros(nanos - originNanos));
+        event.put("pid", pid);
+        event.put("tid", threadId);
+        return event;
+    }
+}
@@ -0,0 +1,125 @@
+package com.truvideo.video;
+
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers encode and merge outputs by input identity plus normalized config. When a
+ * request is built for work that was already done, processing it just links or copies
+ * the stored output to the request's result path instead of transcoding again.
+ */
+class TranscodeMemo {
+
+    // Entries for requests that are built but never processed or deleted are dropped after this
+    private static final long MAX_PENDING_AGE_MS = TimeUnit.DAYS.toMillis(7);
+
+    private static final class Pending {
+        final String key;
+        final String resultPath;
+        final File cached;
+        final long registeredAt;
+
+        Pending(String key, String resultPath, File cached, long registeredAt) {
+            this.key = key;
+            this.resultPath = resultPath;
+            this.cached = cached;
+            this.registeredAt = registeredAt;
+        }
+    }
+
+    private final FileCache cache;
+    private final VideoFingerprints fingerprints;
+    // Request id -> what to do when that request is processed
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+
+    TranscodeMemo(FileCache cache, VideoFingerprints fingerprints) {
+        this.cache = cache;
+        this.fingerprints = fingerprints;
+    }
+
+    String key(String operation, List<String> inputs, String resultPath, JSONObject config) throws IOException {
+        // Null when an input is not a local file, since there is nothing stable to key on
+        StringBuilder key = new StringBuilder(operation);
+        for (String input : inputs) {
+            FileKey file = FileKey.of(input);
+            if (file == null) {
+                return null;
+            }
+            key.append('|').append(file).append('|').append(fingerprints.fingerprint(file));
+        }
+        // The result extension picks the container, so it is part of the key
+        String extension = IoUtils.extension(resultPath, "mp4");
+        key.append('|').append(normalize(config)).append('|').append(extension);
+        return IoUtils.sha1(key.toString()) + "." + extension;
+    }
+
+    void register(String requestId, String key, String resultPath) {
+        long now = System.currentTimeMillis();
+        expire(now - MAX_PENDING_AGE_MS);
+        pending.put(requestId, new Pending(key, resultPath, cache.get(key), now));
+    }
+
+    void expire(long registeredBefore) {
+        pending.values().removeIf(entry -> entry.registeredAt < registeredBefore);
+    }
+
+    boolean isHit(String requestId) {
+        Pending entry = pending.get(requestId);
+        return entry != null && entry.cached != null;
+    }
+
+    void materialize(String requestId) throws IOException {
+        // Kept until the link lands; if it fails, the fallback transcode still needs the
+        // entry so completed() can store its output
+        Pending entry = pending.get(requestId);
+        IoUtils.linkOrCopy(entry.cached, new File(entry.resultPath));
+        pending.remove(requestId);
+    }
+
+    void completed(String requestId) throws IOException {
+        Pending entry = pending.remove(requestId);
+        if (entry != null) {
+            cache.put(entry.key, new File(entry.resultPath));
+        }
+    }
+
+    void forget(String requestId) {
+        pending.remove(requestId);
+    }
+
+    void clear() {
+        cache.clear();
+    }
+
+    static String normalize(JSONObject config) {
+        // Drops empty values and canonicalizes numbers so {"height": "720"} and
+        // {"height": 720, "width": ""} produce the same key
+        TreeMap<String, String> sorted = new TreeMap<>();
+        if (config != null) {
+            Iterator<String> keys = config.keys();
+            while (keys.hasNext()) {
+                String name = keys.next();
+                Object value = config.opt(name);
+                if (value == null || value == JSONObject.NULL || value.toString().isEmpty()) {
+                    continue;
+                }
+                String text = value.toString();
+                try {
+                    text = String.valueOf(Long.parseLong(text));
+                } catch (NumberFormatException e) {
+                    // not a number
+                }
+                sorted.put(name, text);
+            }
+        }
+        return sorted.toString();
+    }
+}
@@ -3,10 +3,16 @@ package com.truvideo.video;
 import static com.truvideo.sdk.video.TruvideoSdkVideo.TruvideoSdkVideo;
 
 import android.content.Intent;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
 import android.util.Log;
+import android.view.Choreographer;
 
 import androidx.annotation.NonNull;
 
+import com.getcapacitor.JSArray;
 import com.getcapacitor.JSObject;
 import com.getcapacitor.Plugin;
 import com.getcapacitor.PluginCall;
@@ -16,7 +22,6 @@ import com.google.gson.Gson;
 import com.truvideo.sdk.video.interfaces.TruvideoSdkVideoCallback;
 import com.truvideo.sdk.video.model.TruvideoSdkVideoFile;
 import com.truvideo.sdk.video.model.TruvideoSdkVideoFileDescriptor;
-import com.truvideo.sdk.video.model.TruvideoSdkVideoFrameRate;
 import com.truvideo.sdk.video.model.TruvideoSdkVideoInformation;
 import com.truvideo.sdk.video.model.TruvideoSdkVideoRequest;
 import com.truvideo.sdk.video.video_request_builder.TruvideoSdkVideoConcatBuilder;
@@ -28,10 +33,24 @@ import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import kotlin.Unit;
 import kotlinx.serialization.json.JsonArray;
@@ -40,24 +59,220 @@ import truvideo.sdk.common.exceptions.TruvideoSdkException;
 @CapacitorPlugin(name = "TruvideoSdkVideo")
 public class TruvideoSdkVideoPlugin extends Plugin {
 
+    private static final String TAG = "TruvideoSdkVideoPlugin";
+    // Gson instances are thread-safe and costly to build, so one serves every call
+    private static final Gson GSON = new Gson();
+    // Per-file answers streamed by getVideoInfoBatch
+    private static final String VIDEO_INFO_BATCH_EVENT = "videoInfoBatch";
+    private static final int DEFAULT_BATCH_PARALLELISM = 2;
+
+    private static final int DEFAULT_PROCESS_CONCURRENCY = 1;
+    private static final int DEFAULT_METADATA_CONCURRENCY = 4;
+    private static final int DEFAULT_EVENT_INTERVAL_MS = 250;
+    private static final int DEFAULT_REQUEST_CACHE_SIZE = 64;
+    private static final int DEFAULT_INFO_CACHE_SIZE = 512;
+    private static final int DEFAULT_THUMBNAIL_CACHE_MB = 64;
+    private static final int DEFAULT_FINGERPRINT_CACHE_SIZE = 256;
+    private static final int DEFAULT_TRANSCODE_CACHE_MB = 512;
+    private static final int DEFAULT_STAGING_CACHE_MB = 1024;
+    private static final int DEFAULT_REQUEST_INDEX_SIZE = 5000;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private static final int DEFAULT_METRICS_DUMP_INTERVAL_MS = 0;
+    private static final int DEFAULT_SEGMENT_SECONDS = 60;
+    private static final int MIN_SEGMENT_SECONDS = 5;
+    // A verified target-size encode is redone once when it lands this far over budget
+    private static final double TARGET_SIZE_TOLERANCE = 1.05;
+    // 0 leaves managed outputs unbounded; free-space preflight still applies
+    private static final int DEFAULT_OUTPUT_QUOTA_MB = 0;
+    // 0 disables the sweeper
+    private static final int DEFAULT_SWEEP_INTERVAL_MINUTES = 0;
+    private static final int DEFAULT_SWEEP_RETENTION_HOURS = 24 * 7;
+    // No deadline unless the call or the plugin config sets one
+    private static final int DEFAULT_CALL_TIMEOUT_MS = 0;
+    // How long teardown waits for a store write already in progress
+    private static final long SHUTDOWN_WAIT_MS = 1000;
+    // Spans kept for exportTrace; older ones are overwritten
+    private static final int DEFAULT_TRACE_BUFFER_SIZE = 4096;
+    // Terminal statuses, named from the SDK's own enum so a rename fails the build
+    private static final Set<String> SWEEP_STATUSES = new HashSet<>(Arrays.asList(
+            TruvideoSdkVideoRequest.Status.COMPLETE.name(),
+            TruvideoSdkVideoRequest.Status.ERROR.name(),
+            TruvideoSdkVideoRequest.Status.CANCELED.name()
+    ));
+
+    // One daemon thread for every timer and delayed store write in the plugin: deadlines,
+    // event windows, the sweep, metric dumps and the JSON stores' journals
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "TruvideoSdkVideo-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final PluginMetrics metrics = new PluginMetrics(scheduler);
+    private final CallDeadlines deadlines = new CallDeadlines(scheduler);
+    // Shared threads that start SDK work for the bounded executors
+    private final ExecutorService workerPool = Executors.newCachedThreadPool();
+    // Info, thumbnail and lookup calls run here so a long export never queues them
+    private BoundedExecutor metadataLane;
+    // Processing, denoise and other transcodes share this capped lane
+    private BoundedExecutor transcodeLane;
+    private ProcessQueue processQueue;
+    private RequestEvents requestEvents;
+    private RequestCache requestCache;
+    private VideoInfoCache videoInfoCache;
+    private FileCache thumbnailCache;
+    private VideoFingerprints fingerprints;
+    private FileCache transcodeCache;
+    private File stagingDir;
+    private FileCache stagingCache;
+    private InputResolver inputResolver;
+    private TranscodeMemo transcodeMemo;
+    private RequestIndex requestIndex;
+    // Identical info, thumbnail and request lookups in flight share one SDK call
+    private final SingleFlight singleFlight = new SingleFlight();
+    private OutputStore outputStore;
+    // Off unless the tracing config or setTracing turns it on
+    private Tracer tracer;
+    // Segmented encodes by job id, so cancelJob can reach them
+    private final Map<String, SegmentJob> segmentJobs = new ConcurrentHashMap<>();
+
+    @Override
+    public void load() {
+        tracer = new Tracer(getConfig().getInt("traceBufferSize", DEFAULT_TRACE_BUFFER_SIZE), getConfig().getBoolean("tracing", false));
+        metadataLane = new BoundedExecutor(workerPool, getConfig().getInt("metadataConcurrency", DEFAULT_METADATA_CONCURRENCY));
+        transcodeLane = new BoundedExecutor(
+                workerPool,
+                getConfig().getInt("transcodeConcurrency", getConfig().getInt("processConcurrency", DEFAULT_PROCESS_CONCURRENCY))
+        );
+        requestCache = new RequestCache(getConfig().getInt("requestCacheSize", DEFAULT_REQUEST_CACHE_SIZE));
+        videoInfoCache = new VideoInfoCache(
+                new File(getContext().getFilesDir(), "truvideo/video-info.json"),
+                getConfig().getInt("infoCacheSize", DEFAULT_INFO_CACHE_SIZE),
+                scheduler
+        );
+        thumbnailCache = new FileCache(
+                new File(getContext().getCacheDir(), "truvideo/thumbnails"),
+                getConfig().getInt("thumbnailCacheMaxMb", DEFAULT_THUMBNAIL_CACHE_MB) * 1024L * 1024L
+        );
+        fingerprints = new VideoFingerprints(getConfig().getInt("fingerprintCacheSize", DEFAULT_FINGERPRINT_CACHE_SIZE));
+        // Kept under files/ so hard links to results in files/camera stay on one volume
+        transcodeCache = new FileCache(
+                new File(getContext().getFilesDir(), "truvideo/transcodes"),
+                getConfig().getInt("transcodeCacheMaxMb", DEFAULT_TRANSCODE_CACHE_MB) * 1024L * 1024L
+        );
+        transcodeMemo = new TranscodeMemo(transcodeCache, fingerprints);
+        stagingDir = new File(getContext().getCacheDir(), "truvideo/staged");
+        stagingCache = new FileCache(
+                stagingDir,
+                getConfig().getInt("stagingCacheMaxMb", DEFAULT_STAGING_CACHE_MB) * 1024L * 1024L
+        );
+        inputResolver = new InputResolver(getContext().getContentResolver(), stagingCache);
+        requestIndex = new RequestIndex(
+                new File(getContext().getFilesDir(), "truvideo/requests.json"),
+                getConfig().getInt("requestIndexSize", DEFAULT_REQUEST_INDEX_SIZE),
+                scheduler
+        );
+        outputStore = new OutputStore(
+                new File(getContext().getFilesDir(), "camera"),
+                new File(getContext().getFilesDir(), "truvideo/outputs.json"),
+                getConfig().getInt("outputQuotaMb", DEFAULT_OUTPUT_QUOTA_MB) * 1024L * 1024L,
+                scheduler
+        );
+        requestEvents = new RequestEvents(
+                event -> notifyListeners(RequestEvents.EVENT_NAME, event),
+                getConfig().getInt("eventIntervalMs", DEFAULT_EVENT_INTERVAL_MS),
+                scheduler
+        );
+        processQueue = new ProcessQueue(
+                new File(getContext().getFilesDir(), "truvideo/process-queue.json"),
+                transcodeLane,
+                this::runProcess,
+                scheduler
+        );
+        // Picks up jobs that were still pending when the app was last killed
+        processQueue.restore();
+        if (getConfig().getBoolean("warmUp", true)) {
+            // Waits for the first frame so warm-up never competes with the app's own start-up
+            new Handler(Looper.getMainLooper()).post(() ->
+                    Choreographer.getInstance().postFrameCallback(frameTime -> workerPool.execute(this::warmUp)));
+        }
+        int sweepMinutes = getConfig().getInt("sweepIntervalMinutes", DEFAULT_SWEEP_INTERVAL_MINUTES);
+        if (sweepMinutes > 0) {
+            long retentionMs = TimeUnit.HOURS.toMillis(getConfig().getInt("sweepRetentionHours", DEFAULT_SWEEP_RETENTION_HOURS));
+            scheduler.scheduleWithFixedDelay(() -> sweepFinishedRequests(retentionMs), sweepMinutes, sweepMinutes, TimeUnit.MINUTES);
+        }
+        metrics.startDump(
+                new File(getContext().getFilesDir(), "truvideo/metrics.jsonl"),
+                getConfig().getInt("metricsDumpIntervalMs", DEFAULT_METRICS_DUMP_INTERVAL_MS)
+        );
+    }
+
+    @Override
+    protected void handleOnDestroy() {
+        // Stops the plugin's threads, then writes what their cancelled delayed saves held.
+        // The scheduler is drained first so a save already running never races the flush.
+        scheduler.shutdownNow();
+        workerPool.shutdown();
+        try {
+            scheduler.awaitTermination(SHUTDOWN_WAIT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        processQueue.flush();
+        requestIndex.flush();
+        outputStore.flush();
+        videoInfoCache.flush();
+        super.handleOnDestroy();
+    }
+
+    void warmUp() {
+        // Pays the one-time costs the first real call would otherwise pay: SDK and Gson
+        // class initialization, and loading the plugin's persisted indexes and caches
+        // The pool thread is reused by real calls afterwards, so its priority is put back
+        int priority = Process.getThreadPriority(Process.myTid());
+        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+        long start = SystemClock.elapsedRealtime();
+        try {
+            TruvideoSdkVideoFile.custom(getContext().getFilesDir().getPath());
+            requestJson("", 0L, "", "", 0L);
+            requestIndex.load();
+            videoInfoCache.load();
+            thumbnailCache.stats();
+            transcodeCache.stats();
+            stagingCache.stats();
+            outputStore.stats();
+        } catch (RuntimeException e) {
+            Log.w(TAG, "warm-up failed", e);
+        } finally {
+            Process.setThreadPriority(priority);
+        }
+        Log.d(TAG, "warm-up took " + (SystemClock.elapsedRealtime() - start) + " ms");
+    }
+
     @PluginMethod
     public void echo(PluginCall call) {
+        begin(call);
         // Echoes back the received value
         String value = call.getString("value");
         JSObject ret = new JSObject();
         ret.put("value", value);
-        call.resolve(ret);
+        resolve(call, ret);
     }
 
     ArrayList<String> filePaths(String videoUris) {
+        // A missing or malformed list reads as empty; callers that need entries reject on that
         ArrayList<String> arrayList = new ArrayList<>();
+        if (videoUris == null) {
+            return arrayList;
+        }
         try {
             JSONArray array = new JSONArray(videoUris);
             for (int i = 0; i < array.length(); i++) {
                 arrayList.add(array.get(i).toString());
             }
         } catch (JSONException e) {
-            e.printStackTrace();
+            Log.w(TAG, "cannot parse path list " + videoUris, e);
         }
         return arrayList;
     }
@@ -65,39 +280,466 @@ public class TruvideoSdkVideoPlugin extends Plugin {
 
     @PluginMethod
     public void concatVideos(PluginCall call) {
+        begin(call);
         // Concatenates multiple videos into one
         String resultPath = call.getString("resultPath");
         ArrayList<String> filePaths = filePaths(call.getString("videoUris"));
+        if (!preflight(call, filePaths, resultPath, 1)) {
+            return;
+        }
 
-        TruvideoSdkVideoConcatBuilder builder = TruvideoSdkVideo.ConcatBuilder(
-                listVideoFile(filePaths),
-                videoFileDescriptor(resultPath)
-        );
+        offPluginThread(call, () -> {
+            TruvideoSdkVideoConcatBuilder builder = TruvideoSdkVideo.ConcatBuilder(
+                    listVideoFile(filePaths),
+                    videoFileDescriptor(resultPath)
+            );
+
+            builder.build(traced("build", call.getMethodName(), null, new TruvideoSdkVideoCallback<TruvideoSdkVideoRequest>() {
+                @Override
+                public void onComplete(TruvideoSdkVideoRequest truvideoSdkVideoRequest) {
+                    JSObject ret = new JSObject();
+                    ret.put("result",returnRequest(truvideoSdkVideoRequest));
+                    resolve(call, ret);
+                    onRequestBuilt(truvideoSdkVideoRequest, resultPath);
+                }
+
+                @Override
+                public void onError(@NonNull TruvideoSdkException e) {
+                    reject(call, e.getMessage(), e);
+                }
+            }));
+        });
+    }
+
+    @PluginMethod
+    public void joinVideos(PluginCall call) {
+        begin(call);
+        // Joins videos with a stream-copy concat when their streams line up, and re-encodes
+        // with a merge otherwise; the result says which path was taken and why
+        String resultPath = call.getString("resultPath");
+        ArrayList<String> filePaths = filePaths(call.getString("videoUris"));
+        if (filePaths.isEmpty()) {
+            reject(call, "videoUris must list at least one video");
+            return;
+        }
+        JSONObject configuration;
+        try {
+            configuration = new JSONObject(call.getString("config", "{}"));
+            VideoConfig.parse(configuration);
+        } catch (JSONException e) {
+            reject(call, "Invalid config: " + e.getMessage(), e);
+            return;
+        }
+        if (!preflight(call, filePaths, resultPath, 1)) {
+            return;
+        }
+        if (VideoConfig.isSet(configuration, "width") || VideoConfig.isSet(configuration, "height")
+                || VideoConfig.isSet(configuration, "framesRate")) {
+            offPluginThread(call, () -> buildJoin(call, false, "config requires re-encoding", filePaths, resultPath, configuration));
+            return;
+        }
+
+        // Probes every input at once; a failed probe leaves the decision to the SDK compare
+        String[] infos = new String[filePaths.size()];
+        AtomicInteger pending = new AtomicInteger(filePaths.size());
+        for (int i = 0; i < filePaths.size(); i++) {
+            int index = i;
+            metadataLane.execute(done -> probeInfo(call.getMethodName(), filePaths.get(index), releasing(done, new TruvideoSdkVideoCallback<String>() {
+                @Override
+                public void onComplete(String info) {
+                    infos[index] = info;
+                    if (pending.decrementAndGet() == 0) {
+                        chooseJoin(call, filePaths, resultPath, configuration, infos);
+                    }
+                }
+
+                @Override
+                public void onError(@NonNull TruvideoSdkException e) {
+                    Log.w(TAG, "cannot probe " + filePaths.get(index), e);
+                    if (pending.decrementAndGet() == 0) {
+                        chooseJoin(call, filePaths, resultPath, configuration, infos);
+                    }
+                }
+            })), rejecting(call));
+        }
+    }
+
+    void chooseJoin(PluginCall call, ArrayList<String> filePaths, String resultPath, JSONObject configuration, String[] infos) {
+        // Differing stream signatures rule a concat out without asking the SDK; matching or
+        // unknown ones are confirmed by compare, which has the final word
+        if (VideoInfoJson.signaturesDiffer(Arrays.asList(infos))) {
+            buildJoin(call, false, "stream parameters differ", filePaths, resultPath, configuration);
+            return;
+        }
+        metadataLane.execute(done -> TruvideoSdkVideo.compare(listVideoFile(filePaths), releasing(done, traced("compare", call.getMethodName(), null, new TruvideoSdkVideoCallback<Boolean>() {
+            @Override
+            public void onComplete(Boolean compatible) {
+                if (Boolean.TRUE.equals(compatible)) {
+                    buildJoin(call, true, "streams are compatible", filePaths, resultPath, configuration);
+                } else {
+                    buildJoin(call, false, "compare reported incompatible streams", filePaths, resultPath, configuration);
+                }
+            }
 
-        builder.build(new TruvideoSdkVideoCallback<TruvideoSdkVideoRequest>() {
+            @Override
+            public void onError(@NonNull TruvideoSdkException e) {
+                Log.w(TAG, "compare failed, merging", e);
+                buildJoin(call, false, "compare failed", filePaths, resultPath, configuration);
+            }
+        }))), rejecting(call));
+    }
+
+    void buildJoin(PluginCall call, boolean concat, String reason, ArrayList<String> filePaths, String resultPath,
+                   JSONObject configuration) {
+        TruvideoSdkVideoCallback<TruvideoSdkVideoRequest> built = new TruvideoSdkVideoCallback<TruvideoSdkVideoRequest>() {
             @Override
             public void onComplete(TruvideoSdkVideoRequest truvideoSdkVideoRequest) {
                 JSObject ret = new JSObject();
-                ret.put("result",returnRequest(truvideoSdkVideoRequest));
-                call.resolve(ret);
+                ret.put("result", returnRequest(truvideoSdkVideoRequest));
+                ret.put("strategy", concat ? "concat" : "merge");
+                ret.put("reason", reason);
+                resolve(call, ret);
+                onRequestBuilt(truvideoSdkVideoRequest, resultPath);
+            }
+
+            @Override
+            public void onError(@NonNull TruvideoSdkException e) {
+                reject(call, e.getMessage(), e);
+            }
+        };
+        if (concat) {
+            TruvideoSdkVideo.ConcatBuilder(listVideoFile(filePaths), videoFileDescriptor(resultPath)).build(traced("build", call.getMethodName(), null, built));
+            return;
+        }
+        TruvideoSdkVideoMergeBuilder builder = TruvideoSdkVideo.MergeBuilder(listVideoFile(filePaths), videoFileDescriptor(resultPath));
+        try {
+            applyConfig(builder, configuration);
+        } catch (JSONException e) {
+            reject(call, "Invalid config: " + e.getMessage(), e);
+            return;
+        }
+        builder.build(traced("build", call.getMethodName(), null, built));
+    }
+
+    boolean preflight(PluginCall call, List<String> inputs, String resultPath, double multiplier) {
+        // Rejects the call before any work starts when the output cannot fit on disk
+        try {
+            checkSpace(inputs, resultPath, multiplier);
+            return true;
+        } catch (IOException e) {
+            reject(call, e.getMessage(), e);
+            return false;
+        }
+    }
+
+    void checkSpace(List<String> inputs, String resultPath, double multiplier) throws IOException {
+        // content:// inputs are sized by their provider, and those not staged yet also need
+        // room for the copy in the cache dir
+        long inputBytes = 0;
+        long stagingBytes = 0;
+        for (String input : inputs) {
+            long size = inputResolver.sizeOf(input);
+            inputBytes += size;
+            if (inputResolver.needsStaging(input)) {
+                stagingBytes += size;
+            }
+        }
+        outputStore.preflight(inputBytes, stagingBytes, stagingDir, resultPath, multiplier);
+    }
+
+    @PluginMethod
+    public void getStorageUsage(PluginCall call) {
+        begin(call);
+        // Reports how much the outputs under the managed camera folder use, against the quota
+        JSObject ret = new JSObject();
+        ret.put("result", outputStore.stats());
+        resolve(call, ret);
+    }
+
+    @PluginMethod
+    public void pinOutput(PluginCall call) {
+        begin(call);
+        // Pinned outputs are never evicted to honour the quota
+        String path = call.getString("path");
+        if (!outputStore.pin(path, call.getBoolean("pinned", true))) {
+            reject(call, "Not a managed output: " + path);
+            return;
+        }
+        resolve(call);
+    }
+
+    void begin(PluginCall call) {
+        // Every plugin method starts here; timeoutMs on the call overrides the configured default
+        metrics.begin(call);
+        tracer.beginCall(call);
+        long timeoutMs = call.getLong("timeoutMs", (long) getConfig().getInt("callTimeoutMs", DEFAULT_CALL_TIMEOUT_MS));
+        deadlines.arm(call, timeoutMs, this::timedOut);
+        inputResolver.hold(call.getCallbackId(), callInputs(call));
+    }
+
+    List<String> callInputs(PluginCall call) {
+        // Inputs the call may stage; their staged copies stay pinned until it settles
+        List<String> inputs = new ArrayList<>();
+        for (String name : new String[]{"videoUri", "videoPath"}) {
+            if (call.getString(name) != null) {
+                inputs.add(call.getString(name));
+            }
+        }
+        for (String name : new String[]{"videoUris", "videoPaths"}) {
+            if (call.getString(name) != null) {
+                inputs.addAll(filePaths(call.getString(name)));
+            }
+        }
+        String jobs = call.getString("jobs");
+        if (jobs != null) {
+            try {
+                JSONArray array = new JSONArray(jobs);
+                for (int i = 0; i < array.length(); i++) {
+                    JSONObject job = array.optJSONObject(i);
+                    if (job == null) {
+                        continue;
+                    }
+                    inputs.add(job.optString("videoUri", null));
+                    if (job.has("videoUris")) {
+                        inputs.addAll(filePaths(job.get("videoUris").toString()));
+                    }
+                }
+            } catch (JSONException e) {
+                // submitBatch rejects malformed jobs itself
+            }
+        }
+        return inputs;
+    }
+
+    void timedOut(PluginCall call, long timeoutMs) {
+        inputResolver.release(call.getCallbackId());
+        metrics.timedOut(call);
+        tracer.endCall(call, true);
+        call.reject("Timed out after " + timeoutMs + " ms", "TIMEOUT");
+    }
+
+    void cancelOnTimeout(PluginCall call, Runnable cancel) {
+        // Opt-in per call: stop the SDK work when the caller has given up on it
+        if (call.getBoolean("cancelOnTimeout", false)) {
+            deadlines.onExpiry(call, cancel);
+        }
+    }
+
+    // The helpers below settle a call at most once; answers after a timeout are dropped
+
+    boolean settle(PluginCall call, boolean error) {
+        if (!deadlines.settle(call)) {
+            return false;
+        }
+        inputResolver.release(call.getCallbackId());
+        metrics.end(call, error);
+        tracer.endCall(call, error);
+        return true;
+    }
+
+    void resolve(PluginCall call) {
+        if (settle(call, false)) {
+            call.resolve();
+        }
+    }
+
+    void resolve(PluginCall call, JSObject ret) {
+        if (settle(call, false)) {
+            call.resolve(ret);
+        }
+    }
+
+    void reject(PluginCall call, String message) {
+        if (settle(call, true)) {
+            call.reject(message);
+        }
+    }
+
+    void reject(PluginCall call, String message, Exception e) {
+        if (settle(call, true)) {
+            call.reject(message, e);
+        }
+    }
+
+    @PluginMethod
+    public void getMetrics(PluginCall call) {
+        // Reports per-method calls, errors, in-flight count and latency percentiles in ms
+        begin(call);
+        JSObject ret = new JSObject();
+        ret.put("methods", metrics.snapshot());
+        JSObject lanes = new JSObject();
+        lanes.put("metadata", metadataLane.stats());
+        lanes.put("transcode", transcodeLane.stats());
+        ret.put("lanes", lanes);
+        ret.put("singleFlight", singleFlight.stats());
+        resolve(call, ret);
+    }
+
+    <T> TruvideoSdkVideoCallback<T> traced(String operation, String method, String requestId, TruvideoSdkVideoCallback<T> callback) {
+        // Records an SDK operation as a span of the plugin method behind it while tracing is
+        // on; built requests tag the span with their id. With tracing off the callback is
+        // returned as is.
+        Tracer.Span span = tracer.begin(Tracer.CATEGORY_SDK, operation, method);
+        if (span == null) {
+            return callback;
+        }
+        span.requestId = requestId;
+        return new TruvideoSdkVideoCallback<T>() {
+            @Override
+            public void onComplete(T result) {
+                tracer.end(span, result instanceof TruvideoSdkVideoRequest ? ((TruvideoSdkVideoRequest) result).getId() : null, false);
+                callback.onComplete(result);
             }
 
             @Override
             public void onError(@NonNull TruvideoSdkException e) {
-                call.reject(e.getMessage(), e);
+                tracer.end(span, null, true);
+                callback.onError(e);
+            }
+        };
+    }
+
+    @PluginMethod
+    public void setTracing(PluginCall call) {
+        begin(call);
+        // Turns span recording on or off; clear drops what the buffer holds
+        tracer.setEnabled(call.getBoolean("enabled", true));
+        if (call.getBoolean("clear", false)) {
+            tracer.clear();
+        }
+        resolve(call);
+    }
+
+    @PluginMethod
+    public void exportTrace(PluginCall call) {
+        begin(call);
+        // Writes the buffered spans as Chrome trace-event JSON, by default under the cache dir
+        String path = call.getString("path");
+        File file = path != null
+                ? new File(path)
+                : new File(getContext().getCacheDir(), "truvideo/traces/trace-" + System.currentTimeMillis() + ".json");
+        workerPool.execute(() -> {
+            try {
+                JSObject ret = tracer.export(file);
+                ret.put("result", file.getPath());
+                resolve(call, ret);
+            } catch (IOException | RuntimeException e) {
+                reject(call, e.getMessage(), e);
             }
         });
     }
 
+    void offPluginThread(PluginCall call, Runnable work) {
+        // Resolving an input may copy a content:// video into the cache first, which must
+        // not hold up Capacitor's plugin thread; a failure rejects the call
+        workerPool.execute(() -> {
+            try {
+                work.run();
+            } catch (RuntimeException e) {
+                reject(call, e.getMessage(), e);
+            }
+        });
+    }
+
+    BoundedExecutor.Failure rejecting(PluginCall call) {
+        // Failure hook for lane tasks: a task that throws leaves no callback to settle its call
+        return e -> reject(call, e.getMessage(), e);
+    }
+
+    static <T> TruvideoSdkVideoCallback<T> releasing(Runnable done, TruvideoSdkVideoCallback<T> callback) {
+        // Frees the lane slot before handing the result on, whichever way the call ends
+        return new TruvideoSdkVideoCallback<T>() {
+            @Override
+            public void onComplete(T result) {
+                done.run();
+                callback.onComplete(result);
+            }
+
+            @Override
+            public void onError(@NonNull TruvideoSdkException e) {
+                done.run();
+                callback.onError(e);
+            }
+        };
+    }
+
     public String returnRequest(TruvideoSdkVideoRequest request) {
+        return requestJson(request.getId(), request.getCreatedAt(), request.getStatus().name(), request.getType().name(), request.getUpdatedAt());
+    }
+
+    static String requestJson(String id, Object createdAt, String status, String type, Object updatedAt) {
         Map<String, Object> map = new HashMap<>();
-        map.put("id", request.getId());
-        map.put("createdAt", request.getCreatedAt());
-        map.put("status", request.getStatus().name());
-        map.put("type", request.getType().name());
-        map.put("updatedAt", request.getUpdatedAt());
+        map.put("id", id);
+        map.put("createdAt", createdAt);
+        map.put("status", status);
+        map.put("type", type);
+        map.put("updatedAt", updatedAt);
+
+        return GSON.toJson(map);
+    }
+
+    void onRequestBuilt(TruvideoSdkVideoRequest request, String resultPath) {
+        // A freshly built request is usually processed next, so keep its handle at hand
+        requestCache.put(request);
+        requestIndex.update(request, resultPath);
+        publishRequestEvent(request.getId(), request, "built");
+    }
+
+    void lookupRequest(String method, String requestId, TruvideoSdkVideoCallback<TruvideoSdkVideoRequest> callback) {
+        // Serves the handle from memory when the plugin has seen it since its last status change
+        TruvideoSdkVideoRequest cached = requestCache.get(requestId);
+        if (cached != null) {
+            callback.onComplete(cached);
+            return;
+        }
+        singleFlight.run("getRequestById", requestId, callback, flight ->
+                TruvideoSdkVideo.getRequestById(requestId, traced("getRequestById", method, requestId, new TruvideoSdkVideoCallback<TruvideoSdkVideoRequest>() {
+                    @Override
+                    public void onComplete(TruvideoSdkVideoRequest truvideoSdkVideoRequest) {
+                        requestCache.put(truvideoSdkVideoRequest);
+                        requestIndex.update(truvideoSdkVideoRequest, null);
+                        flight.onComplete(truvideoSdkVideoRequest);
+                    }
 
-        return new Gson().toJson(map);
+                    @Override
+                    public void onError(@NonNull TruvideoSdkException e) {
+                        flight.onError(e);
+                    }
+                })));
+    }
+
+    void refreshRequest(String requestId) {
+        // Re-reads a request whose status the plugin just changed so the index stays current;
+        // a lookup started before the change may return the old status, so it is not joined
+        requestCache.invalidate(requestId);
+        singleFlight.forget("getRequestById", requestId);
+        lookupRequest("refreshRequest", requestId, new TruvideoSdkVideoCallback<TruvideoSdkVideoRequest>() {
+            @Override
+            public void onComplete(TruvideoSdkVideoRequest truvideoSdkVideoRequest) {
+            }
+
+            @Override
+            public void onError(@NonNull TruvideoSdkException e) {
+                Log.w(TAG, "cannot refresh request " + requestId, e);
+            }
+        });
+    }
+
+    void publishRequestEvent(String requestId, TruvideoSdkVideoRequest request, String event) {
+        publishRequestEvent(requestId, request, event, null);
+    }
+
+    void publishRequestEvent(String requestId, TruvideoSdkVideoRequest request, String event, TruvideoSdkException error) {
+        // Skips building the payload when JS has not subscribed
+        if (!hasListeners(RequestEvents.EVENT_NAME)) {
+            return;
+        }
+        JSObject payload = request != null ? returnRequestAsJSObject(request) : new JSObject().put("id", requestId);
+        payload.put("event", event);
+        if (error != null) {
+            payload.put("error", error.getMessage());
+        }
+        requestEvents.publish(requestId, payload);
     }
 
     public JSObject returnRequestAsJSObject(TruvideoSdkVideoRequest request) {
@@ -110,363 +752,1630 @@ public class TruvideoSdkVideoPlugin extends Plugin {
     return obj;
 }
 
+    void applyConfig(TruvideoSdkVideoEncodeBuilder builder, JSONObject configuration) throws JSONException {
+        VideoConfig.parse(configuration).applyTo(builder);
+    }
+
+    void applyConfig(TruvideoSdkVideoMergeBuilder builder, JSONObject configuration) throws JSONException {
+        VideoConfig.parse(configuration).applyTo(builder);
+    }
+
     @PluginMethod
     public void encodeVideo(PluginCall call) {
+        begin(call);
         // Encodes a video with optional configuration
         String resultPath = call.getString("resultPath");
         String filePaths = call.getString("videoUri");
         String config = call.getString("config");
+        boolean segmented = call.getBoolean("segmented", false);
+        // Segmented mode also holds the split and encoded segments until the concat is done
+        if (!preflight(call, Collections.singletonList(filePaths), resultPath, segmented ? 3 : 1)) {
+            return;
+        }
 
-        TruvideoSdkVideoEncodeBuilder builder = TruvideoSdkVideo.EncodeBuilder(
-                videoFile(filePaths),
-                videoFileDescriptor(resultPath)
-        );
-
+        VideoConfig target;
         try {
-            JSONObject configuration = new JSONObject(config);
-
-            if (configuration.has("height")) {
-                builder.setHeight(configuration.getInt("height"));
-            }
-            if (configuration.has("width")) {
-                builder.setWidth(configuration.getInt("width"));
-            }
-            if (configuration.has("framesRate")) {
-                switch (configuration.getString("framesRate")) {
-                    case "twentyFourFps":
-                        builder.setFramesRate(TruvideoSdkVideoFrameRate.twentyFourFps);
-                        break;
-                    case "twentyFiveFps":
-                        builder.setFramesRate(TruvideoSdkVideoFrameRate.twentyFiveFps);
-                        break;
-                    case "thirtyFps":
-                        builder.setFramesRate(TruvideoSdkVideoFrameRate.thirtyFps);
-                        break;
-                    case "fiftyFps":
-                        builder.setFramesRate(TruvideoSdkVideoFrameRate.fiftyFps);
-                        break;
-                    case "sixtyFps":
-                        builder.setFramesRate(TruvideoSdkVideoFrameRate.sixtyFps);
-                        break;
-                    default:
-                        builder.setFramesRate(TruvideoSdkVideoFrameRate.defaultFrameRate);
+            target = VideoConfig.parse(config != null ? new JSONObject(config) : new JSONObject());
+        } catch (JSONException e) {
+            reject(call, e.getMessage(), e);
+            return;
+        }
+        if (target.hasTarget()) {
+            if (segmented) {
+                reject(call, "Target size and segmented mode cannot be combined");
+                return;
+            }
+            encodeToTarget(call, filePaths, resultPath, target);
+            return;
+        }
+
+        if (segmented) {
+            try {
+                encodeSegmented(call, filePaths, resultPath, config != null ? new JSONObject(config) : new JSONObject());
+            } catch (JSONException e) {
+                reject(call, e.getMessage(), e);
+            }
+            return;
+        }
+
+        offPluginThread(call, () -> {
+            TruvideoSdkVideoEncodeBuilder builder = TruvideoSdkVideo.EncodeBuilder(
+                    videoFile(filePaths),
+                    videoFileDescriptor(resultPath)
+            );
+
+            JSONObject configuration;
+            try {
+                configuration = config != null ? new JSONObject(config) : new JSONObject();
+                applyConfig(builder, configuration);
+            } catch (JSONException e) {
+                reject(call, "Invalid config: " + e.getMessage(), e);
+                return;
+            }
+            // Opt-in: identical input and config reuse an earlier output when processed
+            String memoKey = call.getBoolean("useCache", false) ? memoKey("encode", Collections.singletonList(filePaths), resultPath, configuration) : null;
+
+            builder.build(traced("build", call.getMethodName(), null, new TruvideoSdkVideoCallback<TruvideoSdkVideoRequest>() {
+                @Override
+                public void onComplete(TruvideoSdkVideoRequest truvideoSdkVideoRequest) {
+                    JSObject ret = new JSObject();
+                    ret.put("result",returnRequest(truvideoSdkVideoRequest));
+                    if (memoKey != null) {
+                        transcodeMemo.register(truvideoSdkVideoRequest.getId(), memoKey, resultPath);
+                        ret.put("cached", transcodeMemo.isHit(truvideoSdkVideoRequest.getId()));
+                    }
+                    resolve(call, ret);
+                    onRequestBuilt(truvideoSdkVideoRequest, resultPath);
+                }
+
+                @Override
+                public void onError(@NonNull TruvideoSdkException e) {
+                    reject(call, e.getMessage(), e);
+                }
+            }));
+        });
+    }
+
+    void encodeToTarget(PluginCall call, String videoPath, String resultPath, VideoConfig target) {
+        // Sizes the output from the source's duration, resolution and frame rate so it fits
+        // the budget; with verify, processes it and re-encodes once if it overshoots
+        metadataLane.execute(done -> probeInfo(call.getMethodName(), videoPath, releasing(done, new TruvideoSdkVideoCallback<String>() {
+            @Override
+            public void onComplete(String info) {
+                long durationMs = VideoInfoJson.durationMillis(info);
+                int[] size = VideoInfoJson.displaySize(info);
+                if (durationMs <= 0 || size == null) {
+                    reject(call, "Cannot read duration and resolution of " + videoPath);
+                    return;
                 }
+                double fps = VideoInfoJson.frameRate(info);
+                long targetBits = target.targetBits(durationMs);
+                EncodeBudget.Plan plan = EncodeBudget.plan(durationMs, size[0], size[1], fps, targetBits, EncodeBudget.DEFAULT_BITS_PER_PIXEL);
+                encodeTargetPass(call, videoPath, resultPath, target, plan, targetBits / 8, 1, actualBytes ->
+                        EncodeBudget.replan(plan, actualBytes, durationMs, size[0], size[1], fps, targetBits));
             }
-        } catch (JSONException e) {
-            throw new RuntimeException(e);
+
+            @Override
+            public void onError(@NonNull TruvideoSdkException e) {
+                reject(call, e.getMessage(), e);
+            }
+        })), rejecting(call));
+    }
+
+    interface Replanner {
+        EncodeBudget.Plan replan(long actualBytes);
+    }
+
+    void encodeTargetPass(PluginCall call, String videoPath, String resultPath, VideoConfig target,
+                          EncodeBudget.Plan plan, long budgetBytes, int pass, Replanner replanner) {
+        TruvideoSdkVideoEncodeBuilder builder = TruvideoSdkVideo.EncodeBuilder(videoFile(videoPath), videoFileDescriptor(resultPath));
+        plan.toConfig().applyTo(builder);
+        builder.build(traced("build", call.getMethodName(), null, new TruvideoSdkVideoCallback<TruvideoSdkVideoRequest>() {
+            @Override
+            public void onComplete(TruvideoSdkVideoRequest request) {
+                onRequestBuilt(request, resultPath);
+                if (!target.verify) {
+                    JSObject ret = new JSObject();
+                    ret.put("result", returnRequest(request));
+                    ret.put("plan", plan.toJSObject());
+                    resolve(call, ret);
+                    return;
+                }
+                transcodeLane.execute(ProcessQueue.PRIORITY_USER, done -> request.process(releasing(done, traced("process", call.getMethodName(), request.getId(), new TruvideoSdkVideoCallback<String>() {
+                    @Override
+                    public void onComplete(String s) {
+                        long actualBytes = new File(resultPath).length();
+                        if (pass == 1 && actualBytes > budgetBytes * TARGET_SIZE_TOLERANCE) {
+                            // The first output replaces nothing the caller has seen, so it is dropped
+                            requestIndex.remove(request.getId());
+                            deleteQuietly(request);
+                            encodeTargetPass(call, videoPath, resultPath, target, replanner.replan(actualBytes), budgetBytes, 2, replanner);
+                            return;
+                        }
+                        // Only the kept pass is re-read; a lookup of the dropped one could land
+                        // after its removal and put it back in the index
+                        refreshRequest(request.getId());
+                        outputStore.record(resultPath);
+                        JSObject ret = new JSObject();
+                        ret.put("result", returnRequest(request));
+                        ret.put("plan", plan.toJSObject());
+                        ret.put("actualBytes", actualBytes);
+                        ret.put("passes", pass);
+                        resolve(call, ret);
+                    }
+
+                    @Override
+                    public void onError(@NonNull TruvideoSdkException e) {
+                        outputStore.discardPartial(resultPath);
+                        reject(call, e.getMessage(), e);
+                    }
+                }))), rejecting(call));
+            }
+
+            @Override
+            public void onError(@NonNull TruvideoSdkException e) {
+                reject(call, e.getMessage(), e);
+            }
+        }));
+    }
+
+    void encodeSegmented(PluginCall call, String videoPath, String resultPath, JSONObject configuration) throws JSONException {
+        // Splits the input on keyframes, encodes the segments in parallel and concatenates
+        // the encoded segments into resultPath; resolves once the whole encode is done
+        VideoConfig.parse(configuration);
+        long segmentMs = Math.max(MIN_SEGMENT_SECONDS, call.getInt("segmentSeconds", DEFAULT_SEGMENT_SECONDS)) * 1000L;
+        int parallelism = call.getInt("maxParallelism", getConfig().getInt(
+                "segmentParallelism",
+                Math.min(4, Math.max(2, Runtime.getRuntime().availableProcessors() / 2))
+        ));
+        String jobId = call.getString("jobId", UUID.randomUUID().toString());
+        SegmentJob job = new SegmentJob(jobId, call, resultPath, new File(getContext().getCacheDir(), "truvideo/segments/" + IoUtils.sha1(jobId)));
+        if (segmentJobs.putIfAbsent(jobId, job) != null) {
+            reject(call, "A job with id " + jobId + " is already running");
+            return;
         }
+        cancelOnTimeout(call, () -> failSegmented(job, "Job timed out", null));
 
-        builder.build(new TruvideoSdkVideoCallback<TruvideoSdkVideoRequest>() {
+        metadataLane.execute(done -> probeInfo(call.getMethodName(), videoPath, releasing(done, new TruvideoSdkVideoCallback<String>() {
             @Override
-            public void onComplete(TruvideoSdkVideoRequest truvideoSdkVideoRequest) {
-                JSObject ret = new JSObject();
-                ret.put("result",returnRequest(truvideoSdkVideoRequest));
-                call.resolve(ret);
+            public void onComplete(String info) {
+                if (VideoInfoJson.durationMillis(info) < segmentMs * 3 / 2) {
+                    // Too short to be worth splitting; the input goes to the SDK as given, so
+                    // content:// URIs are not mangled by a round-trip through File
+                    encodeSegments(job, Collections.singletonList(videoPath), resultPath, configuration, 1);
+                    return;
+                }
+                workerPool.execute(() -> {
+                    try {
+                        List<String> segments = new ArrayList<>();
+                        for (File segment : VideoSplitter.split(inputResolver.resolve(videoPath), job.dir, segmentMs * 1000L, job.settled)) {
+                            segments.add(segment.getPath());
+                        }
+                        encodeSegments(job, segments, resultPath, configuration, parallelism);
+                    } catch (IOException e) {
+                        failSegmented(job, e.getMessage(), e);
+                    }
+                });
             }
 
             @Override
             public void onError(@NonNull TruvideoSdkException e) {
-                call.reject(e.getMessage(), e);
+                failSegmented(job, e.getMessage(), e);
+            }
+        })), e -> failSegmented(job, e.getMessage(), e));
+    }
+
+    void encodeSegments(SegmentJob job, List<String> segments, String resultPath, JSONObject configuration, int parallelism) {
+        // A single segment is encoded straight to resultPath; otherwise each goes to the temp dir
+        boolean direct = segments.size() == 1;
+        List<String> outputs = new ArrayList<>();
+        for (int i = 0; i < segments.size(); i++) {
+            outputs.add(direct ? resultPath : new File(job.dir, "encoded_" + i + "." + IoUtils.extension(resultPath, "mp4")).getPath());
+        }
+        AtomicInteger remaining = new AtomicInteger(segments.size());
+        BoundedExecutor executor = new BoundedExecutor(workerPool, parallelism);
+        for (int i = 0; i < segments.size(); i++) {
+            String input = segments.get(i);
+            String output = outputs.get(i);
+            // The job's own cap nests inside the transcode lane, so segment encodes count
+            // against the plugin-wide transcode limit like every other transcode
+            executor.execute(done -> transcodeLane.execute(ProcessQueue.PRIORITY_USER, slot -> {
+                Runnable release = () -> {
+                    slot.run();
+                    done.run();
+                };
+                if (job.settled.get()) {
+                    release.run();
+                    return;
+                }
+                TruvideoSdkVideoEncodeBuilder builder = TruvideoSdkVideo.EncodeBuilder(videoFile(input), videoFileDescriptor(output));
+                try {
+                    applyConfig(builder, configuration);
+                } catch (JSONException e) {
+                    release.run();
+                    failSegmented(job, e.getMessage(), e);
+                    return;
+                }
+                processSegmentRequest(job, builder::build, releasing(release, new TruvideoSdkVideoCallback<TruvideoSdkVideoRequest>() {
+                    @Override
+                    public void onComplete(TruvideoSdkVideoRequest request) {
+                        if (remaining.decrementAndGet() > 0) {
+                            return;
+                        }
+                        if (direct) {
+                            finishSegmented(job, request, resultPath, 1);
+                        } else {
+                            concatSegments(job, outputs, resultPath);
+                        }
+                    }
+
+                    @Override
+                    public void onError(@NonNull TruvideoSdkException e) {
+                        failSegmented(job, e.getMessage(), e);
+                    }
+                }));
+            }, e -> {
+                done.run();
+                failSegmented(job, e.getMessage(), e);
+            }), e -> failSegmented(job, e.getMessage(), e));
+        }
+    }
+
+    void concatSegments(SegmentJob job, List<String> outputs, String resultPath) {
+        TruvideoSdkVideoConcatBuilder builder = TruvideoSdkVideo.ConcatBuilder(listVideoFile(outputs), videoFileDescriptor(resultPath));
+        processSegmentRequest(job, builder::build, new TruvideoSdkVideoCallback<TruvideoSdkVideoRequest>() {
+            @Override
+            public void onComplete(TruvideoSdkVideoRequest request) {
+                finishSegmented(job, request, resultPath, outputs.size());
+            }
+
+            @Override
+            public void onError(@NonNull TruvideoSdkException e) {
+                failSegmented(job, e.getMessage(), e);
             }
         });
     }
 
+    interface RequestBuild {
+        void build(TruvideoSdkVideoCallback<TruvideoSdkVideoRequest> callback);
+    }
+
+    void processSegmentRequest(SegmentJob job, RequestBuild build, TruvideoSdkVideoCallback<TruvideoSdkVideoRequest> callback) {
+        // Builds and processes one request of the job, tracking it so a cancel can stop it
+        build.build(traced("build", job.call.getMethodName(), null, new TruvideoSdkVideoCallback<TruvideoSdkVideoRequest>() {
+            @Override
+            public void onComplete(TruvideoSdkVideoRequest request) {
+                job.started(request);
+                request.process(traced("process", job.call.getMethodName(), request.getId(), new TruvideoSdkVideoCallback<String>() {
+                    @Override
+                    public void onComplete(String s) {
+                        job.finished(request);
+                        callback.onComplete(request);
+                    }
+
+                    @Override
+                    public void onError(@NonNull TruvideoSdkException e) {
+                        job.finished(request);
+                        callback.onError(e);
+                    }
+                }));
+            }
+
+            @Override
+            public void onError(@NonNull TruvideoSdkException e) {
+                callback.onError(e);
+            }
+        }));
+    }
+
+    void finishSegmented(SegmentJob job, TruvideoSdkVideoRequest result, String resultPath, int segments) {
+        if (!job.settle()) {
+            return;
+        }
+        segmentJobs.remove(job.id);
+        deleteIntermediateRequests(job, result);
+        outputStore.record(resultPath);
+        // Indexed first and then re-read, as processStageRequest does, so the processed
+        // status is what stays in the cache and index
+        onRequestBuilt(result, resultPath);
+        refreshRequest(result.getId());
+        JSObject ret = new JSObject();
+        ret.put("result", returnRequest(result));
+        ret.put("jobId", job.id);
+        ret.put("segments", segments);
+        resolve(job.call, ret);
+    }
+
+    void failSegmented(SegmentJob job, String message, Exception e) {
+        if (!job.settle()) {
+            return;
+        }
+        segmentJobs.remove(job.id);
+        deleteIntermediateRequests(job, null);
+        outputStore.discardPartial(job.resultPath);
+        reject(job.call, message, e);
+    }
+
+    void deleteIntermediateRequests(SegmentJob job, TruvideoSdkVideoRequest keep) {
+        // Segment requests point at deleted temp files, so they are removed from the SDK too
+        for (TruvideoSdkVideoRequest request : job.created()) {
+            if (request != keep) {
+                deleteQuietly(request);
+            }
+        }
+    }
+
+    @PluginMethod
+    public void cancelJob(PluginCall call) {
+        begin(call);
+        // Stops a segmented encode; its pending call is rejected and temp segments removed
+        String jobId = call.getString("jobId");
+        SegmentJob job = jobId != null ? segmentJobs.get(jobId) : null;
+        if (job == null) {
+            reject(call, "No running job with id " + jobId);
+            return;
+        }
+        failSegmented(job, "Job cancelled", null);
+        resolve(call);
+    }
+
+    String memoKey(String operation, List<String> inputs, String resultPath, JSONObject configuration) {
+        try {
+            List<String> resolved = new ArrayList<>();
+            for (String input : inputs) {
+                resolved.add(inputResolver.resolve(input));
+            }
+            return transcodeMemo.key(operation, resolved, resultPath, configuration);
+        } catch (IOException e) {
+            Log.w(TAG, "cannot fingerprint inputs, skipping transcode cache", e);
+            return null;
+        }
+    }
+
+    @PluginMethod
+    public void clearTranscodeCache(PluginCall call) {
+        begin(call);
+        // Drops every remembered encode/merge output
+        transcodeMemo.clear();
+        resolve(call);
+    }
 
     @PluginMethod
     public void compareVideos(PluginCall call) {
-        // Compares multiple videos for equality
+        begin(call);
+        // Checks whether the videos are compatible enough to be concatenated
         ArrayList<String> filePaths = filePaths(call.getString("videoUris"));
 
-        TruvideoSdkVideo.compare(listVideoFile(filePaths), new TruvideoSdkVideoCallback<Boolean>() {
-            @Override
-            public void onComplete(Boolean isEqual) {
+        offPluginThread(call, () -> {
+            // Copies of one recording are compatible, and cached infos whose streams differ are
+            // not; everything else is left to the SDK compare, as joinVideos does
+            List<FileKey> keys = new ArrayList<>();
+            List<String> infos = new ArrayList<>();
+            Map<String, String> distinct = new LinkedHashMap<>();
+            for (String path : filePaths) {
+                FileKey key = FileKey.of(inputResolver.resolve(path));
+                keys.add(key);
+                infos.add(key != null ? videoInfoCache.get(key) : null);
+                distinct.putIfAbsent(key != null ? key.path : path, path);
+            }
+            Boolean quick = null;
+            try {
+                if (!keys.isEmpty() && fingerprints.sameContent(keys)) {
+                    quick = true;
+                }
+            } catch (IOException e) {
+                Log.w(TAG, "fingerprint check failed, falling back to full compare", e);
+            }
+            if (quick == null && VideoInfoJson.signaturesDiffer(infos)) {
+                quick = false;
+            }
+            if (quick != null) {
                 JSObject ret = new JSObject();
-                ret.put("result", isEqual);
-                call.resolve(ret);
+                ret.put("result", quick);
+                resolve(call, ret);
+                return;
             }
 
-            @Override
-            public void onError(@NonNull TruvideoSdkException e) {
-                call.reject(e.getMessage(), e);
-            }
+            // A file listed twice only needs to be compared once
+            TruvideoSdkVideo.compare(listVideoFile(new ArrayList<>(distinct.values())), traced("compare", call.getMethodName(), null, new TruvideoSdkVideoCallback<Boolean>() {
+                @Override
+                public void onComplete(Boolean compatible) {
+                    JSObject ret = new JSObject();
+                    ret.put("result", compatible);
+                    resolve(call, ret);
+                }
+
+                @Override
+                public void onError(@NonNull TruvideoSdkException e) {
+                    reject(call, e.getMessage(), e);
+                }
+            }));
         });
     }
 
     @PluginMethod
     public void mergeVideos(PluginCall call) {
+        begin(call);
         // Merges multiple videos into one with optional configuration
         String resultPath = call.getString("resultPath");
         ArrayList<String> filePaths = filePaths(call.getString("videoUris"));
         String config = call.getString("config");
+        if (!preflight(call, filePaths, resultPath, 1)) {
+            return;
+        }
 
-        TruvideoSdkVideoMergeBuilder builder = TruvideoSdkVideo.MergeBuilder(
-                listVideoFile(filePaths),
-                videoFileDescriptor(resultPath)
-        );
+        offPluginThread(call, () -> {
+            TruvideoSdkVideoMergeBuilder builder = TruvideoSdkVideo.MergeBuilder(
+                    listVideoFile(filePaths),
+                    videoFileDescriptor(resultPath)
+            );
+
+            JSONObject configuration;
+            try {
+                configuration = config != null ? new JSONObject(config) : new JSONObject();
+                applyConfig(builder, configuration);
+            } catch (JSONException e) {
+                reject(call, "Invalid config: " + e.getMessage(), e);
+                return;
+            }
+            // Opt-in: identical input and config reuse an earlier output when processed
+            String memoKey = call.getBoolean("useCache", false) ? memoKey("merge", filePaths, resultPath, configuration) : null;
+
+            builder.build(traced("build", call.getMethodName(), null, new TruvideoSdkVideoCallback<TruvideoSdkVideoRequest>() {
+                @Override
+                public void onComplete(TruvideoSdkVideoRequest truvideoSdkVideoRequest) {
+                    JSObject ret = new JSObject();
+                    ret.put("result", returnRequest(truvideoSdkVideoRequest));
+                    if (memoKey != null) {
+                        transcodeMemo.register(truvideoSdkVideoRequest.getId(), memoKey, resultPath);
+                        ret.put("cached", transcodeMemo.isHit(truvideoSdkVideoRequest.getId()));
+                    }
+                    resolve(call, ret);
+                    onRequestBuilt(truvideoSdkVideoRequest, resultPath);
+                }
+
+                @Override
+                public void onError(@NonNull TruvideoSdkException e) {
+                    reject(call, e.getMessage(), e);
+                }
+            }));
+        });
+    }
 
+    @PluginMethod
+    public void submitBatch(PluginCall call) {
+        begin(call);
+        // Builds several encode/merge/concat requests in one call and optionally processes them
+        String jobsJson = call.getString("jobs");
+        if (jobsJson == null) {
+            reject(call, "jobs is required");
+            return;
+        }
+        JSONArray jobs;
         try {
-            JSONObject configuration = new JSONObject(config);
-
-            if (configuration.has("height")) {
-                builder.setHeight(configuration.getInt("height"));
-            }
-            if (configuration.has("width")) {
-                builder.setWidth(configuration.getInt("width"));
-            }
-            if (configuration.has("framesRate")) {
-                switch (configuration.getString("framesRate")) {
-                    case "twentyFourFps":
-                        builder.setFramesRate(TruvideoSdkVideoFrameRate.twentyFourFps);
-                        break;
-                    case "twentyFiveFps":
-                        builder.setFramesRate(TruvideoSdkVideoFrameRate.twentyFiveFps);
-                        break;
-                    case "thirtyFps":
-                        builder.setFramesRate(TruvideoSdkVideoFrameRate.thirtyFps);
-                        break;
-                    case "fiftyFps":
-                        builder.setFramesRate(TruvideoSdkVideoFrameRate.fiftyFps);
-                        break;
-                    case "sixtyFps":
-                        builder.setFramesRate(TruvideoSdkVideoFrameRate.sixtyFps);
-                        break;
-                    default:
-                        builder.setFramesRate(TruvideoSdkVideoFrameRate.defaultFrameRate);
+            jobs = new JSONArray(jobsJson);
+        } catch (JSONException e) {
+            reject(call, e.getMessage(), e);
+            return;
+        }
+        int maxParallelism = call.getInt("maxParallelism", getConfig().getInt("batchMaxParallelism", DEFAULT_BATCH_PARALLELISM));
+        boolean process = call.getBoolean("process", false);
+
+        BoundedExecutor executor = new BoundedExecutor(workerPool, maxParallelism);
+        int count = jobs.length();
+        JSObject[] results = new JSObject[count];
+        TruvideoSdkVideoRequest[] built = new TruvideoSdkVideoRequest[count];
+        AtomicInteger remaining = new AtomicInteger(count);
+
+        Runnable finish = () -> {
+            JSArray array = new JSArray();
+            for (JSObject result : results) {
+                array.put(result);
+            }
+            JSObject ret = new JSObject();
+            ret.put("result", array);
+            resolve(call, ret);
+
+            if (process) {
+                for (TruvideoSdkVideoRequest request : built) {
+                    if (request != null) {
+                        processQueue.enqueue(request.getId(), ProcessQueue.PRIORITY_BACKGROUND, null);
+                    }
                 }
             }
-        } catch (JSONException e) {
-            throw new RuntimeException(e);
+        };
+        if (count == 0) {
+            finish.run();
+            return;
+        }
+
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            JSObject entry = new JSObject();
+            entry.put("index", index);
+            Runnable complete = () -> {
+                results[index] = entry;
+                if (remaining.decrementAndGet() == 0) {
+                    finish.run();
+                }
+            };
+            executor.execute(done -> {
+                try {
+                    buildJob(call.getMethodName(), jobs.getJSONObject(index), releasing(done, new TruvideoSdkVideoCallback<TruvideoSdkVideoRequest>() {
+                        @Override
+                        public void onComplete(TruvideoSdkVideoRequest truvideoSdkVideoRequest) {
+                            built[index] = truvideoSdkVideoRequest;
+                            entry.put("id", truvideoSdkVideoRequest.getId());
+                            entry.put("result", returnRequestAsJSObject(truvideoSdkVideoRequest));
+                            onRequestBuilt(truvideoSdkVideoRequest, jobs.optJSONObject(index).optString("resultPath", null));
+                            complete.run();
+                        }
+
+                        @Override
+                        public void onError(@NonNull TruvideoSdkException e) {
+                            entry.put("error", e.getMessage());
+                            complete.run();
+                        }
+                    }));
+                } catch (JSONException | IOException e) {
+                    done.run();
+                    entry.put("error", e.getMessage());
+                    complete.run();
+                }
+            }, e -> {
+                // A job whose builder throws still counts, or the batch would never answer
+                entry.put("error", e.getMessage());
+                complete.run();
+            });
+        }
+    }
+
+    void buildJob(String method, JSONObject job, TruvideoSdkVideoCallback<TruvideoSdkVideoRequest> callback) throws JSONException, IOException {
+        // Creates the SDK builder described by a batch job spec and builds it
+        String type = job.getString("type");
+        TruvideoSdkVideoFileDescriptor output = videoFileDescriptor(job.getString("resultPath"));
+        JSONObject configuration = jobConfig(job);
+        List<String> inputs = job.has("videoUris") ? filePaths(job.get("videoUris").toString()) : Collections.singletonList(job.optString("videoUri"));
+        checkSpace(inputs, job.getString("resultPath"), 1);
+
+        switch (type) {
+            case "encode": {
+                TruvideoSdkVideoEncodeBuilder builder = TruvideoSdkVideo.EncodeBuilder(videoFile(job.getString("videoUri")), output);
+                if (configuration != null) {
+                    applyConfig(builder, configuration);
+                }
+                builder.build(traced("build", method, null, callback));
+                break;
+            }
+            case "merge": {
+                TruvideoSdkVideoMergeBuilder builder = TruvideoSdkVideo.MergeBuilder(listVideoFile(filePaths(job.get("videoUris").toString())), output);
+                if (configuration != null) {
+                    applyConfig(builder, configuration);
+                }
+                builder.build(traced("build", method, null, callback));
+                break;
+            }
+            case "concat":
+                TruvideoSdkVideo.ConcatBuilder(listVideoFile(filePaths(job.get("videoUris").toString())), output).build(traced("build", method, null, callback));
+                break;
+            default:
+                throw new JSONException("Unknown job type: " + type);
+        }
+    }
+
+    JSONObject jobConfig(JSONObject job) throws JSONException {
+        // Accepts the config either as a nested object or as a JSON string like encodeVideo does
+        Object config = job.opt("config");
+        if (config == null || config == JSONObject.NULL) {
+            return null;
         }
+        if (config instanceof JSONObject) {
+            return (JSONObject) config;
+        }
+        return new JSONObject(config.toString());
+    }
 
-        builder.build(new TruvideoSdkVideoCallback<TruvideoSdkVideoRequest>() {
+    @PluginMethod
+    public void getRequestById(PluginCall call) {
+        begin(call);
+        String requestId = call.getString("path");
+        if (requestId == null) {
+            reject(call, "path is required");
+            return;
+        }
+        metadataLane.execute(done -> lookupRequest(call.getMethodName(), requestId, releasing(done, new TruvideoSdkVideoCallback<TruvideoSdkVideoRequest>() {
             @Override
             public void onComplete(TruvideoSdkVideoRequest truvideoSdkVideoRequest) {
                 JSObject ret = new JSObject();
                 ret.put("result", returnRequest(truvideoSdkVideoRequest));
-                call.resolve(ret);
+                resolve(call, ret);
             }
 
             @Override
             public void onError(@NonNull TruvideoSdkException e) {
-                call.reject(e.getMessage(), e);
+                reject(call, e.getMessage(), e);
             }
-        });
+        })), rejecting(call));
     }
 
     @PluginMethod
-    public void getRequestById(PluginCall call) {
+    public void processVideo(PluginCall call) {
+        begin(call);
         String requestId = call.getString("path");
-        if(requestId == null){
+        if (requestId == null) {
+            reject(call, "path is required");
             return;
         }
-        TruvideoSdkVideo.getRequestById(requestId, new TruvideoSdkVideoCallback<TruvideoSdkVideoRequest>() {
+        // User-facing jobs run ahead of background ones such as batch submissions
+        int priority = "background".equals(call.getString("priority")) ? ProcessQueue.PRIORITY_BACKGROUND : ProcessQueue.PRIORITY_USER;
+        cancelOnTimeout(call, () -> cancelRequest(call.getMethodName(), requestId, new TruvideoSdkVideoCallback<TruvideoSdkVideoRequest>() {
             @Override
             public void onComplete(TruvideoSdkVideoRequest truvideoSdkVideoRequest) {
-                JSObject ret = new JSObject();
-                ret.put("result", returnRequest(truvideoSdkVideoRequest));
-                call.resolve(ret);
             }
 
             @Override
             public void onError(@NonNull TruvideoSdkException e) {
-                call.reject(e.getMessage(), e);
+                Log.w(TAG, "cannot cancel timed-out request " + requestId, e);
+            }
+        }));
+        publishRequestEvent(requestId, null, "queued");
+        processQueue.enqueue(requestId, priority, (request, cached, error) -> {
+            if (error != null) {
+                reject(call, error.getMessage(), error);
+                return;
+            }
+            JSObject ret = new JSObject();
+            if (cached) {
+                // The SDK request was never processed, so its own status would be stale
+                ret.put("result", requestJson(request.getId(), request.getCreatedAt(), TruvideoSdkVideoRequest.Status.COMPLETE.name(), request.getType().name(), System.currentTimeMillis()));
+                ret.put("cached", true);
+            } else {
+                ret.put("result", returnRequest(request));
             }
+            resolve(call, ret);
         });
     }
 
-    @PluginMethod
-    public void processVideo(PluginCall call) {
-        String requestId = call.getString("path");
-        if(requestId == null){
-            return;
-        }
-        TruvideoSdkVideo.getRequestById(requestId, new TruvideoSdkVideoCallback<TruvideoSdkVideoRequest>() {
+    void runProcess(String requestId, ProcessQueue.Listener listener) {
+        // Looks up the request and processes it; used by the process queue for every job.
+        // Queued jobs outlive the call that queued them, so their spans name the queue.
+        String method = "processQueue";
+        lookupRequest(method, requestId, new TruvideoSdkVideoCallback<TruvideoSdkVideoRequest>() {
             @Override
             public void onComplete(TruvideoSdkVideoRequest truvideoSdkVideoRequest) {
-                truvideoSdkVideoRequest.process(new TruvideoSdkVideoCallback<String>() {
+                requestCache.invalidate(requestId);
+                RequestIndex.Row row = requestIndex.get(requestId);
+                String resultPath = row != null ? row.resultPath : null;
+                if (transcodeMemo.isHit(requestId)) {
+                    // Same inputs and config were transcoded before: hand out that output. The
+                    // placeholder request would stay unprocessed in the SDK, so it is deleted
+                    // and dropped from the index rather than reported with a stale status.
+                    try {
+                        transcodeMemo.materialize(requestId);
+                        outputStore.record(resultPath);
+                        deleteQuietly(truvideoSdkVideoRequest);
+                        requestIndex.remove(requestId);
+                        publishRequestEvent(requestId, null, "completed");
+                        listener.onFinished(truvideoSdkVideoRequest, true, null);
+                        return;
+                    } catch (IOException e) {
+                        Log.w(TAG, "cannot reuse cached output, transcoding", e);
+                    }
+                }
+                publishRequestEvent(requestId, truvideoSdkVideoRequest, "processing");
+                truvideoSdkVideoRequest.process(traced("process", method, requestId, new TruvideoSdkVideoCallback<String>() {
                     @Override
                     public void onComplete(String s) {
-                        JSObject ret = new JSObject();
-                        ret.put("result", returnRequest(truvideoSdkVideoRequest));
-                        call.resolve(ret);
+                        refreshRequest(requestId);
+                        try {
+                            transcodeMemo.completed(requestId);
+                        } catch (IOException e) {
+                            Log.w(TAG, "cannot cache transcode output", e);
+                        }
+                        outputStore.record(resultPath);
+                        publishRequestEvent(requestId, truvideoSdkVideoRequest, "completed");
+                        listener.onFinished(truvideoSdkVideoRequest, false, null);
                     }
 
                     @Override
                     public void onError(@NonNull TruvideoSdkException e) {
-
+                        refreshRequest(requestId);
+                        transcodeMemo.forget(requestId);
+                        outputStore.discardPartial(resultPath);
+                        publishRequestEvent(requestId, truvideoSdkVideoRequest, "failed", e);
+                        listener.onFinished(truvideoSdkVideoRequest, false, e);
                     }
-                });
+                }));
             }
 
             @Override
             public void onError(@NonNull TruvideoSdkException e) {
-                call.reject(e.getMessage(), e);
+                publishRequestEvent(requestId, null, "failed", e);
+                listener.onFinished(null, false, e);
             }
         });
     }
 
+    @PluginMethod
+    public void listRequests(PluginCall call) {
+        begin(call);
+        // Pages through the plugin's request index, newest first, with optional filters
+        RequestIndex.Query query = new RequestIndex.Query();
+        query.statuses = stringSet(call.getString("status"));
+        query.types = stringSet(call.getString("type"));
+        query.createdAfter = call.getLong("createdAfter");
+        query.createdBefore = call.getLong("createdBefore");
+        query.cursor = call.getString("cursor");
+        query.limit = Math.min(MAX_PAGE_SIZE, Math.max(1, call.getInt("limit", DEFAULT_PAGE_SIZE)));
+
+        List<RequestIndex.Row> page = requestIndex.find(query);
+        JSObject ret = new JSObject();
+        ret.put("result", RequestIndex.toJSArray(page));
+        ret.put("nextCursor", page.size() == query.limit ? RequestIndex.cursor(page.get(page.size() - 1)) : null);
+        resolve(call, ret);
+    }
+
+    Set<String> stringSet(String value) {
+        // Accepts a single value or a JSON array of values, like videoUris
+        if (value == null) {
+            return null;
+        }
+        return new HashSet<>(value.trim().startsWith("[") ? filePaths(value) : Collections.singletonList(value));
+    }
+
+    @PluginMethod
+    public void getProcessQueue(PluginCall call) {
+        begin(call);
+        // Lists the jobs that are queued or running, including ones restored after a restart
+        JSObject ret = new JSObject();
+        ret.put("result", processQueue.snapshot());
+        resolve(call, ret);
+    }
+
+    @PluginMethod
+    public void getCacheStats(PluginCall call) {
+        begin(call);
+        // Reports size and hit/miss counters of the plugin's caches
+        JSObject ret = new JSObject();
+        ret.put("requests", requestCache.stats());
+        ret.put("videoInfo", videoInfoCache.stats());
+        ret.put("thumbnails", thumbnailCache.stats());
+        ret.put("fingerprints", fingerprints.stats());
+        ret.put("transcodes", transcodeCache.stats());
+        ret.put("staged", stagingCache.stats());
+        resolve(call, ret);
+    }
+
     @PluginMethod
     public void delete(PluginCall call) {
+        begin(call);
         String requestId = call.getString("path");
-        if(requestId == null){
+        if (requestId == null) {
+            reject(call, "path is required");
             return;
         }
-        TruvideoSdkVideo.getRequestById(requestId, new TruvideoSdkVideoCallback<TruvideoSdkVideoRequest>() {
+        deleteRequest(call.getMethodName(), requestId, false, new TruvideoSdkVideoCallback<TruvideoSdkVideoRequest>() {
+            @Override
+            public void onComplete(TruvideoSdkVideoRequest truvideoSdkVideoRequest) {
+                JSObject ret = new JSObject();
+                ret.put("result", returnRequest(truvideoSdkVideoRequest));
+                resolve(call, ret);
+            }
+
+            @Override
+            public void onError(@NonNull TruvideoSdkException e) {
+                reject(call, e.getMessage(), e);
+            }
+        });
+    }
+
+    void deleteRequest(String method, String requestId, boolean deleteOutput, TruvideoSdkVideoCallback<TruvideoSdkVideoRequest> callback) {
+        TruvideoSdkVideoCallback<TruvideoSdkVideoRequest> settled = dequeuing(requestId, callback);
+        lookupRequest(method, requestId, new TruvideoSdkVideoCallback<TruvideoSdkVideoRequest>() {
             @Override
             public void onComplete(TruvideoSdkVideoRequest truvideoSdkVideoRequest) {
                 truvideoSdkVideoRequest.delete(new TruvideoSdkVideoCallback<Unit>() {
                     @Override
                     public void onComplete(Unit unit) {
-                        JSObject ret = new JSObject();
-                        ret.put("result", returnRequest(truvideoSdkVideoRequest));
-                        call.resolve(ret);
+                        RequestIndex.Row row = requestIndex.get(requestId);
+                        if (deleteOutput && row != null && row.resultPath != null) {
+                            outputStore.remove(row.resultPath);
+                        }
+                        requestCache.invalidate(requestId);
+                        requestIndex.remove(requestId);
+                        transcodeMemo.forget(requestId);
+                        publishRequestEvent(requestId, truvideoSdkVideoRequest, "deleted");
+                        settled.onComplete(truvideoSdkVideoRequest);
                     }
 
                     @Override
                     public void onError(@NonNull TruvideoSdkException e) {
-                        call.reject(e.getMessage(), e);
+                        settled.onError(e);
                     }
                 });
             }
 
             @Override
             public void onError(@NonNull TruvideoSdkException e) {
-                call.reject(e.getMessage(), e);
+                settled.onError(e);
             }
         });
     }
 
     @PluginMethod
     public void cancelVideo(PluginCall call) {
+        begin(call);
         String requestId = call.getString("path");
-        if(requestId == null){
+        if (requestId == null) {
+            reject(call, "path is required");
             return;
         }
-        TruvideoSdkVideo.getRequestById(requestId, new TruvideoSdkVideoCallback<TruvideoSdkVideoRequest>() {
+        cancelRequest(call.getMethodName(), requestId, new TruvideoSdkVideoCallback<TruvideoSdkVideoRequest>() {
+            @Override
+            public void onComplete(TruvideoSdkVideoRequest truvideoSdkVideoRequest) {
+                JSObject ret = new JSObject();
+                ret.put("result", returnRequest(truvideoSdkVideoRequest));
+                resolve(call, ret);
+            }
+
+            @Override
+            public void onError(@NonNull TruvideoSdkException e) {
+                reject(call, e.getMessage(), e);
+            }
+        });
+    }
+
+    void cancelRequest(String method, String requestId, TruvideoSdkVideoCallback<TruvideoSdkVideoRequest> callback) {
+        TruvideoSdkVideoCallback<TruvideoSdkVideoRequest> settled = dequeuing(requestId, callback);
+        lookupRequest(method, requestId, new TruvideoSdkVideoCallback<TruvideoSdkVideoRequest>() {
             @Override
             public void onComplete(TruvideoSdkVideoRequest truvideoSdkVideoRequest) {
                 truvideoSdkVideoRequest.cancel(new TruvideoSdkVideoCallback<Unit>() {
                     @Override
                     public void onComplete(Unit unit) {
-                        JSObject ret = new JSObject();
-                        ret.put("result", returnRequest(truvideoSdkVideoRequest));
-                        call.resolve(ret);
+                        refreshRequest(requestId);
+                        publishRequestEvent(requestId, truvideoSdkVideoRequest, "cancelled");
+                        settled.onComplete(truvideoSdkVideoRequest);
                     }
 
                     @Override
                     public void onError(@NonNull TruvideoSdkException e) {
-                        call.reject(e.getMessage(), e);
+                        settled.onError(e);
                     }
                 });
             }
 
             @Override
             public void onError(@NonNull TruvideoSdkException e) {
-                call.reject(e.getMessage(), e);
+                settled.onError(e);
             }
         });
     }
 
+    TruvideoSdkVideoCallback<TruvideoSdkVideoRequest> dequeuing(String requestId, TruvideoSdkVideoCallback<TruvideoSdkVideoRequest> callback) {
+        // Takes the request off the process queue if it has not started, so it is never
+        // processed, and answers the processVideo calls waiting on it with this outcome
+        List<ProcessQueue.Listener> waiting = processQueue.remove(requestId);
+        if (waiting.isEmpty()) {
+            return callback;
+        }
+        return new TruvideoSdkVideoCallback<TruvideoSdkVideoRequest>() {
+            @Override
+            public void onComplete(TruvideoSdkVideoRequest request) {
+                for (ProcessQueue.Listener listener : waiting) {
+                    listener.onFinished(request, false, null);
+                }
+                callback.onComplete(request);
+            }
+
+            @Override
+            public void onError(@NonNull TruvideoSdkException e) {
+                for (ProcessQueue.Listener listener : waiting) {
+                    listener.onFinished(null, false, e);
+                }
+                callback.onError(e);
+            }
+        };
+    }
+
+    interface RequestOperation {
+        void run(String requestId, TruvideoSdkVideoCallback<TruvideoSdkVideoRequest> callback);
+    }
+
+    interface BulkListener {
+        void onFinished(JSObject summary);
+    }
+
+    @PluginMethod
+    public void deleteRequests(PluginCall call) {
+        begin(call);
+        // Deletes every listed or matching request, optionally with its managed output
+        boolean deleteOutputs = call.getBoolean("deleteOutputs", false);
+        bulkCall(call, (requestId, callback) -> deleteRequest(call.getMethodName(), requestId, deleteOutputs, callback));
+    }
+
+    @PluginMethod
+    public void cancelRequests(PluginCall call) {
+        begin(call);
+        // Cancels every listed or matching request
+        bulkCall(call, (requestId, callback) -> cancelRequest(call.getMethodName(), requestId, callback));
+    }
+
+    void bulkCall(PluginCall call, RequestOperation operation) {
+        // Targets come from ids, or else from status/type/olderThan filters over the request index
+        List<String> ids;
+        String idsJson = call.getString("ids");
+        if (idsJson != null) {
+            ids = new ArrayList<>(stringSet(idsJson));
+        } else {
+            RequestIndex.Query query = new RequestIndex.Query();
+            query.statuses = stringSet(call.getString("status"));
+            query.types = stringSet(call.getString("type"));
+            query.createdBefore = call.getLong("olderThan");
+            if (query.statuses == null && query.types == null && query.createdBefore == null) {
+                reject(call, "ids or at least one filter is required");
+                return;
+            }
+            ids = matchingRequests(query);
+        }
+        int parallelism = call.getInt("maxParallelism", getConfig().getInt("batchMaxParallelism", DEFAULT_BATCH_PARALLELISM));
+        runBulk(ids, parallelism, operation, summary -> resolve(call, summary));
+    }
+
+    List<String> matchingRequests(RequestIndex.Query query) {
+        List<String> ids = new ArrayList<>();
+        query.limit = MAX_PAGE_SIZE;
+        while (true) {
+            List<RequestIndex.Row> page = requestIndex.find(query);
+            for (RequestIndex.Row row : page) {
+                ids.add(row.id);
+            }
+            if (page.size() < query.limit) {
+                return ids;
+            }
+            query.cursor = RequestIndex.cursor(page.get(page.size() - 1));
+        }
+    }
+
+    void runBulk(List<String> ids, int parallelism, RequestOperation operation, BulkListener listener) {
+        // Runs the operation over every id on a bounded executor and reports one summary
+        JSArray succeeded = new JSArray();
+        JSArray failed = new JSArray();
+        if (ids.isEmpty()) {
+            listener.onFinished(bulkSummary(0, succeeded, failed));
+            return;
+        }
+        AtomicInteger remaining = new AtomicInteger(ids.size());
+        BoundedExecutor executor = new BoundedExecutor(workerPool, parallelism);
+        new Object() {
+            void start() {
+                for (String requestId : ids) {
+                    executor.execute(done -> operation.run(requestId, releasing(done, new TruvideoSdkVideoCallback<TruvideoSdkVideoRequest>() {
+                        @Override
+                        public void onComplete(TruvideoSdkVideoRequest request) {
+                            synchronized (succeeded) {
+                                succeeded.put(requestId);
+                            }
+                            finish();
+                        }
+
+                        @Override
+                        public void onError(@NonNull TruvideoSdkException e) {
+                            failed(requestId, e.getMessage());
+                        }
+                    })), e -> failed(requestId, e.getMessage()));
+                }
+            }
+
+            void failed(String requestId, String error) {
+                JSObject failure = new JSObject();
+                failure.put("id", requestId);
+                failure.put("error", error);
+                synchronized (failed) {
+                    failed.put(failure);
+                }
+                finish();
+            }
+
+            void finish() {
+                if (remaining.decrementAndGet() == 0) {
+                    listener.onFinished(bulkSummary(ids.size(), succeeded, failed));
+                }
+            }
+        }.start();
+    }
+
+    static JSObject bulkSummary(int total, JSArray succeeded, JSArray failed) {
+        JSObject summary = new JSObject();
+        summary.put("total", total);
+        summary.put("succeeded", succeeded);
+        summary.put("failed", failed);
+        return summary;
+    }
+
+    void sweepFinishedRequests(long retentionMs) {
+        // Deletes requests that finished longer ago than the retention window, with their
+        // managed outputs; a long-running request is kept for the full window after it ends
+        RequestIndex.Query query = new RequestIndex.Query();
+        query.statuses = SWEEP_STATUSES;
+        query.updatedBefore = System.currentTimeMillis() - retentionMs;
+        // Memo entries for requests built that long ago and never processed go with them
+        transcodeMemo.expire(query.updatedBefore);
+        List<String> ids = matchingRequests(query);
+        if (ids.isEmpty()) {
+            return;
+        }
+        runBulk(ids, DEFAULT_BATCH_PARALLELISM, (requestId, callback) -> deleteRequest("sweepFinishedRequests", requestId, true, callback), summary ->
+                Log.i(TAG, "swept " + summary.optJSONArray("succeeded").length() + " of " + ids.size() + " finished requests"));
+    }
+
 
 
     @PluginMethod
     public void getVideoInfo(PluginCall call) {
+        begin(call);
         // Retrieves video metadata information
         String videoPath = call.getString("videoPath");
 
-        TruvideoSdkVideo.getInfo(videoFile(videoPath), new TruvideoSdkVideoCallback<TruvideoSdkVideoInformation>() {
+        metadataLane.execute(done -> probeInfo(call.getMethodName(), videoPath, releasing(done, new TruvideoSdkVideoCallback<String>() {
             @Override
-            public void onComplete(TruvideoSdkVideoInformation videoInfo) {
+            public void onComplete(String info) {
                 JSObject ret = new JSObject();
-                ret.put("result", videoInfo.toJson());
-                call.resolve(ret);
+                ret.put("result", info);
+                resolve(call, ret);
             }
 
             @Override
             public void onError(@NonNull TruvideoSdkException e) {
-                call.reject(e.getMessage(), e);
+                reject(call, e.getMessage(), e);
             }
-        });
+        })), rejecting(call));
+    }
+
+    @PluginMethod
+    public void getVideoInfoBatch(PluginCall call) {
+        begin(call);
+        // Probes many videos at once on the metadata lane and answers with one map of path ->
+        // info, plus a map of path -> error for the ones that failed. With stream set, each
+        // answer is also sent as a videoInfoBatch event as soon as it lands.
+        ArrayList<String> paths = filePaths(call.getString("videoPaths"));
+        boolean stream = call.getBoolean("stream", false);
+        String batchId = call.getString("batchId", call.getCallbackId());
+        // A path listed twice is probed once
+        Set<String> distinct = new LinkedHashSet<>(paths);
+        JSObject results = new JSObject();
+        JSObject errors = new JSObject();
+        if (distinct.isEmpty()) {
+            JSObject ret = new JSObject();
+            ret.put("result", results);
+            ret.put("errors", errors);
+            resolve(call, ret);
+            return;
+        }
+
+        AtomicInteger pending = new AtomicInteger(distinct.size());
+        new Object() {
+            void start() {
+                for (String path : distinct) {
+                    metadataLane.execute(done -> probeInfo(call.getMethodName(), path, releasing(done, new TruvideoSdkVideoCallback<String>() {
+                        @Override
+                        public void onComplete(String info) {
+                            landed(path, info, null);
+                        }
+
+                        @Override
+                        public void onError(@NonNull TruvideoSdkException e) {
+                            landed(path, null, e.getMessage());
+                        }
+                    })), e -> landed(path, null, e.getMessage()));
+                }
+            }
+
+            void landed(String path, String info, String error) {
+                synchronized (results) {
+                    if (error == null) {
+                        results.put(path, info);
+                    } else {
+                        errors.put(path, error);
+                    }
+                }
+                int remaining = pending.decrementAndGet();
+                if (stream && hasListeners(VIDEO_INFO_BATCH_EVENT)) {
+                    JSObject event = new JSObject();
+                    event.put("batchId", batchId);
+                    event.put("path", path);
+                    if (error == null) {
+                        event.put("result", info);
+                    } else {
+                        event.put("error", error);
+                    }
+                    event.put("remaining", remaining);
+                    notifyListeners(VIDEO_INFO_BATCH_EVENT, event);
+                }
+                if (remaining == 0) {
+                    JSObject ret = new JSObject();
+                    synchronized (results) {
+                        ret.put("result", results);
+                        ret.put("errors", errors);
+                    }
+                    resolve(call, ret);
+                }
+            }
+        }.start();
+    }
+
+    void probeInfo(String method, String videoPath, TruvideoSdkVideoCallback<String> callback) {
+        // Answers from the info cache while the file keeps the same size and mtime
+        FileKey key = FileKey.of(inputResolver.resolve(videoPath));
+        String cached = key != null ? videoInfoCache.get(key) : null;
+        if (cached != null) {
+            callback.onComplete(cached);
+            return;
+        }
+
+        // Keyed on size and mtime too, so a rewritten file is never answered with old info
+        singleFlight.run("getVideoInfo", key != null ? key.toString() : videoPath, callback, flight ->
+                TruvideoSdkVideo.getInfo(videoFile(videoPath), traced("getInfo", method, null, new TruvideoSdkVideoCallback<TruvideoSdkVideoInformation>() {
+                    @Override
+                    public void onComplete(TruvideoSdkVideoInformation videoInfo) {
+                        String info = videoInfo.toJson();
+                        if (key != null) {
+                            videoInfoCache.put(key, info);
+                        }
+                        flight.onComplete(info);
+                    }
+
+                    @Override
+                    public void onError(@NonNull TruvideoSdkException e) {
+                        flight.onError(e);
+                    }
+                })));
     }
 
     @PluginMethod
     public void generateThumbnail(PluginCall call) {
+        begin(call);
         // Generates a thumbnail from a video at a specified position
         String videoPath = call.getString("videoPath");
         String resultPath = call.getString("resultPath");
-        int position = call.getInt("position");
-        int width = call.getInt("width");
-        int height = call.getInt("height");
-        Boolean precise = call.getBoolean("precise");
+        Integer position = call.getInt("position");
+        Integer width = call.getInt("width");
+        Integer height = call.getInt("height");
+        boolean precise = call.getBoolean("precise", false);
+        if (position == null || width == null || height == null) {
+            reject(call, "position, width and height are required");
+            return;
+        }
+
+        String missingResult = "resultPath is required when the thumbnail cannot be cached";
+        if (resultPath == null && !call.getBoolean("cache", true)) {
+            reject(call, missingResult);
+            return;
+        }
+
+        metadataLane.execute(done -> {
+            FileKey video = thumbnailKey(call, videoPath);
+            if (resultPath == null && video == null) {
+                done.run();
+                reject(call, missingResult);
+                return;
+            }
+            createThumbnail(call.getMethodName(), videoPath, resultPath, position, width, height, precise, video, releasing(done, new TruvideoSdkVideoCallback<String>() {
+                @Override
+                public void onComplete(String thumbnailPath) {
+                    JSObject ret = new JSObject();
+                    ret.put("result", thumbnailPath);
+                    resolve(call, ret);
+                }
+
+                @Override
+                public void onError(@NonNull TruvideoSdkException e) {
+                    reject(call, e.getMessage(), e);
+                }
+            }));
+        }, rejecting(call));
+    }
+
+    FileKey thumbnailKey(PluginCall call, String videoPath) {
+        // Runs in the lane task, since resolving a content:// input may copy the whole video
+        return call.getBoolean("cache", true) ? FileKey.of(inputResolver.resolve(videoPath)) : null;
+    }
+
+    @PluginMethod
+    public void generateThumbnails(PluginCall call) {
+        begin(call);
+        // Generates a filmstrip: frames at the given positions, or count evenly spaced frames
+        String videoPath = call.getString("videoPath");
+        String resultDir = call.getString("resultDir");
+        String positionsJson = call.getString("positions");
+        Integer count = call.getInt("count");
+        Integer width = call.getInt("width");
+        Integer height = call.getInt("height");
+        boolean precise = call.getBoolean("precise", false);
+        if (width == null || height == null) {
+            reject(call, "width and height are required");
+            return;
+        }
+
+        String missingResult = "resultDir is required when the thumbnails cannot be cached";
+        if (resultDir == null && !call.getBoolean("cache", true)) {
+            reject(call, missingResult);
+            return;
+        }
+
+        TruvideoSdkVideoCallback<List<String>> callback = new TruvideoSdkVideoCallback<List<String>>() {
+            @Override
+            public void onComplete(List<String> paths) {
+                JSObject ret = new JSObject();
+                ret.put("result", new JSArray(paths));
+                resolve(call, ret);
+            }
+
+            @Override
+            public void onError(@NonNull TruvideoSdkException e) {
+                reject(call, e.getMessage(), e);
+            }
+        };
+
+        if (positionsJson != null) {
+            List<Integer> positions = new ArrayList<>();
+            try {
+                for (String position : filePaths(positionsJson)) {
+                    positions.add((int) Double.parseDouble(position));
+                }
+            } catch (NumberFormatException e) {
+                reject(call, "Invalid positions: " + e.getMessage(), e);
+                return;
+            }
+            if (positions.isEmpty()) {
+                reject(call, "positions must list at least one position");
+                return;
+            }
+            metadataLane.execute(done -> {
+                FileKey video = thumbnailKey(call, videoPath);
+                if (resultDir == null && video == null) {
+                    done.run();
+                    reject(call, missingResult);
+                    return;
+                }
+                createThumbnails(call.getMethodName(), videoPath, resultDir, positions, width, height, precise, video, releasing(done, callback));
+            }, rejecting(call));
+            return;
+        }
+        if (count == null || count <= 0) {
+            reject(call, "positions or a positive count is required");
+            return;
+        }
+        metadataLane.execute(done -> probeInfo(call.getMethodName(), videoPath, releasing(done, new TruvideoSdkVideoCallback<String>() {
+            @Override
+            public void onComplete(String info) {
+                long duration = VideoInfoJson.durationMillis(info);
+                if (duration <= 0) {
+                    // Spacing needs the length; without it every frame would be frame 0
+                    reject(call, "Cannot read duration of " + videoPath);
+                    return;
+                }
+                List<Integer> positions = new ArrayList<>();
+                for (int i = 0; i < count; i++) {
+                    // Centre of each of count equal slices, so the first and last frames are not black
+                    positions.add((int) (duration * (i + 0.5) / count));
+                }
+                // The frames take a lane task of their own, like the positions branch, so a
+                // throw while extracting them frees the slot and rejects the call
+                metadataLane.execute(next -> {
+                    // probeInfo has staged the input already, so this does not copy it again
+                    FileKey video = thumbnailKey(call, videoPath);
+                    if (resultDir == null && video == null) {
+                        next.run();
+                        reject(call, missingResult);
+                        return;
+                    }
+                    createThumbnails(call.getMethodName(), videoPath, resultDir, positions, width, height, precise, video, releasing(next, callback));
+                }, rejecting(call));
+            }
+
+            @Override
+            public void onError(@NonNull TruvideoSdkException e) {
+                reject(call, e.getMessage(), e);
+            }
+        })), rejecting(call));
+    }
+
+    void createThumbnails(String method, String videoPath, String resultDir, List<Integer> positions, int width, int height,
+                          boolean precise, FileKey video, TruvideoSdkVideoCallback<List<String>> callback) {
+        // Extracts frames one at a time in ascending position order so the decoder only seeks
+        // forward, then returns the paths in the order the positions were given
+        Integer[] order = new Integer[positions.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(positions.get(a), positions.get(b)));
+        String[] paths = new String[order.length];
+        String base = new File(videoPath).getName().replaceFirst("\\.[^.]*$", "");
+
+        new Object() {
+            void next(int step) {
+                if (step == order.length) {
+                    callback.onComplete(Arrays.asList(paths));
+                    return;
+                }
+                int index = order[step];
+                int position = positions.get(index);
+                String resultPath = resultDir != null ? new File(resultDir, base + "_" + position + ".png").getPath() : null;
+                createThumbnail(method, videoPath, resultPath, position, width, height, precise, video, new TruvideoSdkVideoCallback<String>() {
+                    @Override
+                    public void onComplete(String thumbnailPath) {
+                        paths[index] = thumbnailPath;
+                        next(step + 1);
+                    }
+
+                    @Override
+                    public void onError(@NonNull TruvideoSdkException e) {
+                        callback.onError(e);
+                    }
+                });
+            }
+        }.next(0);
+    }
+
+    void createThumbnail(String method, String videoPath, String resultPath, int position, int width, int height,
+                         boolean precise, FileKey video, TruvideoSdkVideoCallback<String> callback) {
+        // Same video, position and size as an earlier call: reuse that frame instead of decoding.
+        // Without a resultPath the frame is returned from the cache directory.
+        String cacheKey = video != null ? thumbnailKey(video, position, width, height, precise, IoUtils.extension(resultPath, "png")) : null;
+        File cached = cacheKey != null ? thumbnailCache.get(cacheKey) : null;
+        if (cached != null) {
+            try {
+                if (resultPath == null) {
+                    callback.onComplete(cached.getPath());
+                } else {
+                    IoUtils.copy(cached, new File(resultPath));
+                    outputStore.record(resultPath);
+                    callback.onComplete(resultPath);
+                }
+                return;
+            } catch (IOException e) {
+                Log.w(TAG, "cached thumbnail copy failed, regenerating", e);
+            }
+        }
 
-        TruvideoSdkVideo.createThumbnail(
+        String flightKey = (video != null ? video.toString() : videoPath) + "|" + resultPath + "|" + position + "|" + width + "|" + height + "|" + precise;
+        singleFlight.run("generateThumbnail", flightKey, callback, flight -> TruvideoSdkVideo.createThumbnail(
                 videoFile(videoPath),
-                videoFileDescriptor(resultPath),
+                videoFileDescriptor(resultPath != null ? resultPath : thumbnailCache.fileFor(cacheKey).getPath()),
                 position,
                 height,
                 width,
-                precise != null ? precise : false,
-                new TruvideoSdkVideoCallback<String>() {
+                precise,
+                traced("createThumbnail", method, null, new TruvideoSdkVideoCallback<String>() {
                     @Override
                     public void onComplete(String thumbnailPath) {
-                        JSObject ret = new JSObject();
-                        ret.put("result", thumbnailPath);
-                        call.resolve(ret);
+                        String result = thumbnailPath;
+                        if (cacheKey != null) {
+                            try {
+                                File stored = thumbnailCache.put(cacheKey, new File(thumbnailPath));
+                                if (resultPath == null) {
+                                    result = stored.getPath();
+                                }
+                            } catch (IOException e) {
+                                Log.w(TAG, "cannot cache thumbnail", e);
+                            }
+                        }
+                        if (resultPath != null) {
+                            outputStore.record(resultPath);
+                        }
+                        flight.onComplete(result);
                     }
 
                     @Override
                     public void onError(@NonNull TruvideoSdkException e) {
-                        call.reject(e.getMessage(), e);
+                        flight.onError(e);
                     }
-                }
-        );
+                })
+        ));
     }
 
+    static String thumbnailKey(FileKey video, int position, int width, int height, boolean precise, String extension) {
+        return IoUtils.sha1(video + "|" + position + "|" + width + "|" + height + "|" + precise) + "." + extension;
+    }
 
     @PluginMethod
     public void cleanNoise(PluginCall call) {
+        begin(call);
         // Cleans noise from a video and saves to a result path
         String videoPath = call.getString("videoPath");
         String resultPath = call.getString("resultPath");
+        if (!preflight(call, Collections.singletonList(videoPath), resultPath, 1)) {
+            return;
+        }
 
-        TruvideoSdkVideo.clearNoise(videoFile(videoPath), videoFileDescriptor(resultPath), new TruvideoSdkVideoCallback<String>() {
+        transcodeLane.execute(ProcessQueue.PRIORITY_USER, done -> TruvideoSdkVideo.clearNoise(videoFile(videoPath), videoFileDescriptor(resultPath), releasing(done, traced("clearNoise", call.getMethodName(), null, new TruvideoSdkVideoCallback<String>() {
             @Override
             public void onComplete(String outputPath) {
+                outputStore.record(resultPath);
                 JSObject ret = new JSObject();
                 ret.put("result", outputPath);
-                call.resolve(ret);
+                resolve(call, ret);
+            }
+
+            @Override
+            public void onError(@NonNull TruvideoSdkException e) {
+                outputStore.discardPartial(resultPath);
+                reject(call, e.getMessage(), e);
+            }
+        }))), rejecting(call));
+    }
+
+    @PluginMethod
+    public void runPipeline(PluginCall call) {
+        begin(call);
+        // Runs cleanNoise/encode/thumbnail stages back to back on one input without JS round-trips
+        Pipeline pipeline;
+        try {
+            pipeline = Pipeline.parse(
+                    call.getString("videoPath"),
+                    call.getString("stages"),
+                    new File(getContext().getCacheDir(), "truvideo/pipelines/" + UUID.randomUUID())
+            );
+        } catch (JSONException e) {
+            reject(call, e.getMessage(), e);
+            return;
+        }
+        // One temp video and one output exist at a time
+        List<Pipeline.Stage> stages = pipeline.stages;
+        if (!preflight(call, Collections.singletonList(pipeline.input()), stages.get(stages.size() - 1).resultPath, 2)) {
+            return;
+        }
+
+        new Object() {
+            void next(int index, String lastOutput) {
+                if (index == pipeline.stages.size()) {
+                    pipeline.cleanup();
+                    JSObject ret = new JSObject();
+                    ret.put("result", lastOutput);
+                    ret.put("stages", pipeline.timings());
+                    ret.put("durationMs", pipeline.elapsedMs());
+                    resolve(call, ret);
+                    return;
+                }
+                Pipeline.Stage stage = pipeline.stages.get(index);
+                String output = pipeline.outputFor(index);
+                long start = System.nanoTime();
+                runStage(call.getMethodName(), stage, pipeline.input(), output, new TruvideoSdkVideoCallback<String>() {
+                    @Override
+                    public void onComplete(String result) {
+                        if (stage.resultPath != null) {
+                            outputStore.record(output);
+                        }
+                        pipeline.completed(index, output, (System.nanoTime() - start) / 1_000_000);
+                        next(index + 1, output);
+                    }
+
+                    @Override
+                    public void onError(@NonNull TruvideoSdkException e) {
+                        failed(index, stage, output, e);
+                    }
+                }, e -> failed(index, stage, output, e));
+            }
+
+            void failed(int index, Pipeline.Stage stage, String output, Exception e) {
+                pipeline.cleanup();
+                outputStore.discardPartial(output);
+                reject(call, "Stage " + index + " (" + stage.op + ") failed: " + e.getMessage(), e);
+            }
+        }.next(0, null);
+    }
+
+    void runStage(String method, Pipeline.Stage stage, String input, String output, TruvideoSdkVideoCallback<String> callback,
+                  BoundedExecutor.Failure failure) {
+        switch (stage.op) {
+            case Pipeline.CLEAN_NOISE:
+                transcodeLane.execute(ProcessQueue.PRIORITY_USER, done ->
+                        TruvideoSdkVideo.clearNoise(videoFile(input), videoFileDescriptor(output), releasing(done, traced("clearNoise", method, null, callback))), failure);
+                break;
+            case Pipeline.ENCODE:
+                // The builder is created in the lane task, where staging the input may copy it,
+                // and the slot is held through process, where the transcode actually runs
+                transcodeLane.execute(ProcessQueue.PRIORITY_USER, done -> {
+                    TruvideoSdkVideoEncodeBuilder builder = TruvideoSdkVideo.EncodeBuilder(videoFile(input), videoFileDescriptor(output));
+                    stage.config.applyTo(builder);
+                    builder.build(traced("build", method, null, new TruvideoSdkVideoCallback<TruvideoSdkVideoRequest>() {
+                        @Override
+                        public void onComplete(TruvideoSdkVideoRequest request) {
+                            processStageRequest(method, request, output, stage.resultPath != null, releasing(done, callback));
+                        }
+
+                        @Override
+                        public void onError(@NonNull TruvideoSdkException e) {
+                            done.run();
+                            callback.onError(e);
+                        }
+                    }));
+                }, failure);
+                break;
+            default:
+                metadataLane.execute(done -> createThumbnail(
+                        method,
+                        input,
+                        output,
+                        stage.spec.optInt("position", 0),
+                        stage.spec.optInt("width", 0),
+                        stage.spec.optInt("height", 0),
+                        stage.spec.optBoolean("precise", false),
+                        null,
+                        releasing(done, callback)
+                ), failure);
+                break;
+        }
+    }
+
+    void processStageRequest(String method, TruvideoSdkVideoRequest request, String output, boolean keep, TruvideoSdkVideoCallback<String> callback) {
+        // Kept outputs are indexed like any request; temp ones are deleted from the SDK as well
+        request.process(traced("process", method, request.getId(), new TruvideoSdkVideoCallback<String>() {
+            @Override
+            public void onComplete(String s) {
+                if (keep) {
+                    onRequestBuilt(request, output);
+                    refreshRequest(request.getId());
+                } else {
+                    deleteQuietly(request);
+                }
+                callback.onComplete(output);
+            }
+
+            @Override
+            public void onError(@NonNull TruvideoSdkException e) {
+                deleteQuietly(request);
+                callback.onError(e);
+            }
+        }));
+    }
+
+    void deleteQuietly(TruvideoSdkVideoRequest request) {
+        request.delete(new TruvideoSdkVideoCallback<Unit>() {
+            @Override
+            public void onComplete(Unit unit) {
             }
 
             @Override
             public void onError(@NonNull TruvideoSdkException e) {
-                call.reject(e.getMessage(), e);
+                Log.w(TAG, "cannot delete request " + request.getId(), e);
             }
         });
     }
 
     @PluginMethod
     public void getResultPath(PluginCall call) {
+        begin(call);
         // Generates a full file path under app's internal camera folder
         String path = call.getString("path");
         String basePath = getContext().getFilesDir().getPath();
 
         JSObject ret = new JSObject();
         ret.put("result", new File(basePath + "/camera/" + path).getPath());
-        call.resolve(ret);
+        resolve(call, ret);
     }
 
 
     // Static variable to hold the PluginCall reference for further use
     public static PluginCall mainCall;
+    // Plugin that started the edit, so the activity result is recorded in its metrics
+    private static TruvideoSdkVideoPlugin editPlugin;
+
+    public static void onEditResult(JSObject ret) {
+        editPlugin.resolve(mainCall, ret);
+    }
 
     @PluginMethod
     public void editVideo(PluginCall call) {
+        begin(call);
         // Get video and result paths from the PluginCall
         String videoUri = call.getString("videoPath");
         String resultPath = call.getString("resultPath");
 
         // Store the PluginCall reference for future use if needed
         mainCall = call;
+        editPlugin = this;
 
         // Start the EditVideoActivity to edit the video
         getContext().startActivity(new Intent(getContext(), EditVideoActivity.class)
@@ -475,8 +2384,8 @@ public class TruvideoSdkVideoPlugin extends Plugin {
     }
 
     public TruvideoSdkVideoFile videoFile(String inputPath) {
-        // Returns a TruvideoSdkVideoFile instance for a given input video path
-        return TruvideoSdkVideoFile.custom(inputPath);
+        // Returns a TruvideoSdkVideoFile instance for a given input video path or URI
+        return TruvideoSdkVideoFile.custom(inputResolver.resolve(inputPath));
     }
 
     public TruvideoSdkVideoFileDescriptor videoFileDescriptor(String outputPath) {
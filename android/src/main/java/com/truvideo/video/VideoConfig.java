@@ -0,0 +1,103 @@
+package com.truvideo.video;
+
+import com.truvideo.sdk.video.model.TruvideoSdkVideoFrameRate;
+import com.truvideo.sdk.video.video_request_builder.TruvideoSdkVideoEncodeBuilder;
+import com.truvideo.sdk.video.video_request_builder.TruvideoSdkVideoMergeBuilder;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Encode/merge settings parsed from the JSON config string sent by JS. Parsing is kept
+ * apart from the SDK builders so it can be exercised without them.
+ */
+final class VideoConfig {
+
+    Integer height;
+    Integer width;
+    String framesRate;
+    // Budget for target-size mode, in output bytes or bits per second
+    Long targetBytes;
+    Long targetBitsPerSecond;
+    boolean verify;
+
+    static VideoConfig parse(JSONObject configuration) throws JSONException {
+        VideoConfig config = new VideoConfig();
+        if (isSet(configuration, "height")) {
+            config.height = configuration.getInt("height");
+        }
+        if (isSet(configuration, "width")) {
+            config.width = configuration.getInt("width");
+        }
+        if (isSet(configuration, "framesRate")) {
+            config.framesRate = configuration.getString("framesRate");
+        }
+        if (isSet(configuration, "targetSizeMb")) {
+            config.targetBytes = (long) (configuration.getDouble("targetSizeMb") * 1024 * 1024);
+        }
+        if (isSet(configuration, "targetBitrateKbps")) {
+            config.targetBitsPerSecond = (long) (configuration.getDouble("targetBitrateKbps") * 1000);
+        }
+        config.verify = configuration.optBoolean("verify", false);
+        return config;
+    }
+
+    static boolean isSet(JSONObject configuration, String name) {
+        // EncodeBuilder.build() on the JS side sends unset fields as "", which means default
+        return !configuration.isNull(name) && !configuration.optString(name).isEmpty();
+    }
+
+    boolean hasTarget() {
+        return targetBytes != null || targetBitsPerSecond != null;
+    }
+
+    long targetBits(long durationMillis) {
+        // A size budget wins when both are given, since it is what upload limits are about
+        if (targetBytes != null) {
+            return targetBytes * 8;
+        }
+        return targetBitsPerSecond * durationMillis / 1000;
+    }
+
+    void applyTo(TruvideoSdkVideoEncodeBuilder builder) {
+        if (height != null) {
+            builder.setHeight(height);
+        }
+        if (width != null) {
+            builder.setWidth(width);
+        }
+        if (framesRate != null) {
+            builder.setFramesRate(frameRate(framesRate));
+        }
+    }
+
+    void applyTo(TruvideoSdkVideoMergeBuilder builder) {
+        if (height != null) {
+            builder.setHeight(height);
+        }
+        if (width != null) {
+            builder.setWidth(width);
+        }
+        if (framesRate != null) {
+            builder.setFramesRate(frameRate(framesRate));
+        }
+    }
+
+    static TruvideoSdkVideoFrameRate frameRate(String name) {
+        // Maps the frame rate name sent from JS to the SDK enum
+        switch (name) {
+            case "twentyFourFps":
+                return TruvideoSdkVideoFrameRate.twentyFourFps;
+            case "twentyFiveFps":
+                return TruvideoSdkVideoFrameRate.twentyFiveFps;
+            case "thirtyFps":
+                return TruvideoSdkVideoFrameRate.thirtyFps;
+            case "fiftyFps":
+                return TruvideoSdkVideoFrameRate.fiftyFps;
+            case "sixtyFps":
+                return TruvideoSdkVideoFrameRate.sixtyFps;
+            default:
+                return TruvideoSdkVideoFrameRate.defaultFrameRate;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.truvideo.video;
+
+import com.getcapacitor.JSObject;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cheap content fingerprints: file length plus a SHA-1 over blocks sampled from the head,
+ * middle and tail, read with positional channel reads. Equal fingerprints identify copies
+ * of one recording; different ones say nothing about whether two clips are compatible.
+ */
+class VideoFingerprints {
+
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    private final int maxEntries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final LinkedHashMap<String, String> cache;
+
+    VideoFingerprints(int maxEntries) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.cache = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > VideoFingerprints.this.maxEntries;
+            }
+        };
+    }
+
+    String fingerprint(FileKey key) throws IOException {
+        String id = key.toString();
+        synchronized (cache) {
+            String cached = cache.get(id);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+        misses.incrementAndGet();
+        String fingerprint = key.size + ":" + sampleHash(key);
+        synchronized (cache) {
+            cache.put(id, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    /**
+     * True when every entry is the same file or a copy of it, which is trivially
+     * compatible with itself. False only means the files differ, not that they are
+     * incompatible.
+     */
+    boolean sameContent(List<FileKey> keys) throws IOException {
+        String path = null;
+        boolean samePath = true;
+        for (FileKey key : keys) {
+            if (key == null) {
+                return false;
+            }
+            if (path == null) {
+                path = key.path;
+            } else if (!path.equals(key.path)) {
+                samePath = false;
+            }
+        }
+        if (samePath) {
+            return true;
+        }
+        // Lengths first: they are already known and need no reads
+        long size = keys.get(0).size;
+        for (FileKey key : keys) {
+            if (key.size != size) {
+                return false;
+            }
+        }
+        String fingerprint = null;
+        for (FileKey key : keys) {
+            String current = fingerprint(key);
+            if (fingerprint == null) {
+                fingerprint = current;
+            } else if (!fingerprint.equals(current)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    JSObject stats() {
+        JSObject stats = new JSObject();
+        synchronized (cache) {
+            stats.put("size", cache.size());
+        }
+        stats.put("maxSize", maxEntries);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        return stats;
+    }
+
+    private static String sampleHash(FileKey key) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(BLOCK_SIZE);
+        long[] offsets = {0, Math.max(0, key.size / 2 - BLOCK_SIZE / 2), Math.max(0, key.size - BLOCK_SIZE)};
+        try (FileInputStream in = new FileInputStream(key.path)) {
+            FileChannel channel = in.getChannel();
+            for (long offset : offsets) {
+                buffer.clear();
+                long position = offset;
+                while (buffer.hasRemaining()) {
+                    int read = channel.read(buffer, position);
+                    if (read <= 0) {
+                        break;
+                    }
+                    position += read;
+                }
+                buffer.flip();
+                digest.update(buffer);
+            }
+        }
+        return IoUtils.hex(digest.digest());
+    }
+}
@@ -0,0 +1,167 @@
+package com.truvideo.video;
+
+import android.util.Log;
+
+import com.getcapacitor.JSObject;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers {@code TruvideoSdkVideoInformation.toJson()} results per file. Entries live in
+ * a bounded LRU map that is backed by a JSON store under the app files dir, so repeat
+ * lookups survive a cold start. An entry only matches while the file keeps the size and
+ * mtime it had when it was probed.
+ */
+class VideoInfoCache {
+
+    private static final String TAG = "VideoInfoCache";
+    private static final long SAVE_DELAY_MS = 1000;
+
+    private static final class Entry {
+        final long size;
+        final long lastModified;
+        final String info;
+
+        Entry(long size, long lastModified, String info) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.info = info;
+        }
+    }
+
+    private final File store;
+    private final int maxEntries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final LinkedHashMap<String, Entry> entries;
+    private final ScheduledExecutorService writer;
+    private boolean loaded;
+    private boolean saveScheduled;
+
+    VideoInfoCache(File store, int maxEntries, ScheduledExecutorService writer) {
+        this.store = store;
+        this.writer = writer;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > VideoInfoCache.this.maxEntries;
+            }
+        };
+    }
+
+    String get(FileKey key) {
+        synchronized (this) {
+            load();
+            Entry entry = entries.get(key.path);
+            if (entry != null && key.matches(entry.size, entry.lastModified)) {
+                hits.incrementAndGet();
+                return entry.info;
+            }
+            if (entry != null) {
+                entries.remove(key.path);
+                scheduleSave();
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    synchronized void put(FileKey key, String info) {
+        load();
+        entries.put(key.path, new Entry(key.size, key.lastModified, info));
+        scheduleSave();
+    }
+
+    synchronized JSObject stats() {
+        JSObject stats = new JSObject();
+        stats.put("size", entries.size());
+        stats.put("maxSize", maxEntries);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        return stats;
+    }
+
+    synchronized void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!store.exists()) {
+            return;
+        }
+        try {
+            JSONObject json = new JSONObject(JsonFiles.read(store));
+            Iterator<String> keys = json.keys();
+            while (keys.hasNext()) {
+                String path = keys.next();
+                JSONObject item = json.getJSONObject(path);
+                entries.put(path, new Entry(item.getLong("size"), item.getLong("mtime"), item.getString("info")));
+            }
+        } catch (IOException | JSONException e) {
+            Log.e(TAG, "cannot read " + store, e);
+        }
+    }
+
+    private void scheduleSave() {
+        // Coalesces bursts of changes into one write
+        if (saveScheduled) {
+            return;
+        }
+        saveScheduled = true;
+        try {
+            writer.schedule(this::save, SAVE_DELAY_MS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // The plugin is shutting down; write on this thread instead
+            save();
+        }
+    }
+
+    void flush() {
+        // Writes a pending change now; used on teardown, after the writer has stopped
+        boolean pending;
+        synchronized (this) {
+            pending = saveScheduled;
+        }
+        if (pending) {
+            save();
+        }
+    }
+
+    private void save() {
+        String content;
+        synchronized (this) {
+            saveScheduled = false;
+            JSONObject json = new JSONObject();
+            try {
+                for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                    JSONObject item = new JSONObject();
+                    item.put("size", e.getValue().size);
+                    item.put("mtime", e.getValue().lastModified);
+                    item.put("info", e.getValue().info);
+                    json.put(e.getKey(), item);
+                }
+            } catch (JSONException e) {
+                Log.e(TAG, "cannot serialize cache", e);
+                return;
+            }
+            content = json.toString();
+        }
+        try {
+            JsonFiles.write(store, content);
+        } catch (IOException e) {
+            Log.e(TAG, "cannot write " + store, e);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.truvideo.video;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Reads fields the plugin needs from {@code TruvideoSdkVideoInformation.toJson()} without
+ * depending on the SDK model classes.
+ */
+final class VideoInfoJson {
+
+    private VideoInfoJson() {
+    }
+
+    static long durationMillis(String info) {
+        try {
+            JSONObject json = new JSONObject(info);
+            if (json.has("durationMillis")) {
+                return json.getLong("durationMillis");
+            }
+            return json.optLong("duration", 0);
+        } catch (JSONException e) {
+            return 0;
+        }
+    }
+
+    static int[] displaySize(String info) {
+        // Width and height as shown, with 90/270 degree rotations applied; null when unknown
+        JSONObject stream = videoStream(info);
+        if (stream == null || stream.optInt("width") <= 0 || stream.optInt("height") <= 0) {
+            return null;
+        }
+        int rotation = stream.optInt("rotation", 0);
+        boolean swap = rotation % 180 != 0;
+        return new int[]{
+                swap ? stream.optInt("height") : stream.optInt("width"),
+                swap ? stream.optInt("width") : stream.optInt("height")
+        };
+    }
+
+    static double frameRate(String info) {
+        JSONObject stream = videoStream(info);
+        if (stream == null) {
+            return 0;
+        }
+        return stream.has("frameRate") ? stream.optDouble("frameRate", 0) : stream.optDouble("fps", 0);
+    }
+
+    static String joinSignature(String info) {
+        // Stream parameters that must match across clips for a stream-copy concat: codec,
+        // picture size, rotation and frame rate of the video, and the audio layout. Null
+        // when the info carries no stream details to judge from.
+        JSONObject video = videoStream(info);
+        if (video == null || video.optInt("width") <= 0 || video.optInt("height") <= 0) {
+            return null;
+        }
+        StringBuilder signature = new StringBuilder()
+                .append(video.optString("codec")).append('|')
+                .append(video.optString("pixelFormat")).append('|')
+                .append(video.optInt("width")).append('x').append(video.optInt("height")).append('|')
+                .append(video.optInt("rotation", 0)).append('|')
+                .append(Math.round(frameRate(info) * 100));
+        try {
+            JSONArray audios = new JSONObject(info).optJSONArray("audios");
+            int count = audios != null ? audios.length() : 0;
+            signature.append("|audio:").append(count);
+            for (int i = 0; i < count; i++) {
+                JSONObject audio = audios.optJSONObject(i);
+                if (audio != null) {
+                    signature.append('|').append(audio.optString("codec"))
+                            .append('/').append(audio.optInt("sampleRate"))
+                            .append('/').append(audio.optInt("channels"));
+                }
+            }
+        } catch (JSONException e) {
+            return null;
+        }
+        return signature.toString();
+    }
+
+    static boolean signaturesDiffer(Iterable<String> infos) {
+        // True when two infos carry stream details that rule out a stream-copy concat;
+        // infos that are missing or carry no details are skipped
+        String first = null;
+        for (String info : infos) {
+            String signature = info != null ? joinSignature(info) : null;
+            if (signature == null) {
+                continue;
+            }
+            if (first == null) {
+                first = signature;
+            } else if (!first.equals(signature)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static JSONObject videoStream(String info) {
+        // The first entry of "videos" when the info lists streams, else the top-level object
+        try {
+            JSONObject json = new JSONObject(info);
+            JSONArray videos = json.optJSONArray("videos");
+            if (videos != null) {
+                return videos.length() > 0 ? videos.optJSONObject(0) : null;
+            }
+            return json;
+        } catch (JSONException e) {
+            return null;
+        }
+    }
+}
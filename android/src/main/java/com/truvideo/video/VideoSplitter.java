@@ -0,0 +1,116 @@
+package com.truvideo.video;
+
+import android.media.MediaCodec;
+import android.media.MediaExtractor;
+import android.media.MediaFormat;
+import android.media.MediaMuxer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cuts a video into MP4 segments of roughly {@code segmentUs} each without re-encoding.
+ * Every cut is made on a video keyframe, so each segment decodes on its own and the
+ * segments can be encoded in parallel, then concatenated back together.
+ */
+final class VideoSplitter {
+
+    private static final int DEFAULT_SAMPLE_BUFFER = 1024 * 1024;
+
+    private VideoSplitter() {
+    }
+
+    static List<File> split(String input, File dir, long segmentUs, AtomicBoolean cancelled) throws IOException {
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        MediaExtractor extractor = new MediaExtractor();
+        MediaMuxer muxer = null;
+        List<File> segments = new ArrayList<>();
+        try {
+            extractor.setDataSource(input);
+            int trackCount = extractor.getTrackCount();
+            MediaFormat[] formats = new MediaFormat[trackCount];
+            int videoTrack = -1;
+            int bufferSize = DEFAULT_SAMPLE_BUFFER;
+            for (int i = 0; i < trackCount; i++) {
+                MediaFormat format = extractor.getTrackFormat(i);
+                String mime = format.getString(MediaFormat.KEY_MIME);
+                // Subtitle and data tracks are dropped; the encoder would drop them anyway
+                if (mime == null || !(mime.startsWith("video/") || mime.startsWith("audio/"))) {
+                    continue;
+                }
+                if (mime.startsWith("video/") && videoTrack < 0) {
+                    videoTrack = i;
+                }
+                if (format.containsKey(MediaFormat.KEY_MAX_INPUT_SIZE)) {
+                    bufferSize = Math.max(bufferSize, format.getInteger(MediaFormat.KEY_MAX_INPUT_SIZE));
+                }
+                formats[i] = format;
+                extractor.selectTrack(i);
+            }
+            if (videoTrack < 0) {
+                throw new IOException("No video track in " + input);
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+            MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+            int[] muxerTracks = new int[trackCount];
+            long segmentStart = 0;
+            int size;
+            while ((size = extractor.readSampleData(buffer, 0)) >= 0) {
+                if (cancelled.get()) {
+                    throw new InterruptedIOException("Split cancelled");
+                }
+                int track = extractor.getSampleTrackIndex();
+                long time = extractor.getSampleTime();
+                boolean keyframe = (extractor.getSampleFlags() & MediaExtractor.SAMPLE_FLAG_SYNC) != 0;
+
+                if (track == videoTrack && keyframe && (muxer == null || time - segmentStart >= segmentUs)) {
+                    if (muxer != null) {
+                        muxer.stop();
+                        muxer.release();
+                    }
+                    File segment = new File(dir, String.format(Locale.US, "segment_%04d.mp4", segments.size()));
+                    segments.add(segment);
+                    muxer = new MediaMuxer(segment.getPath(), MediaMuxer.OutputFormat.MUXER_OUTPUT_MPEG_4);
+                    for (int i = 0; i < trackCount; i++) {
+                        if (formats[i] != null) {
+                            muxerTracks[i] = muxer.addTrack(formats[i]);
+                        }
+                    }
+                    if (formats[videoTrack].containsKey(MediaFormat.KEY_ROTATION)) {
+                        muxer.setOrientationHint(formats[videoTrack].getInteger(MediaFormat.KEY_ROTATION));
+                    }
+                    muxer.start();
+                    segmentStart = time;
+                }
+
+                // Samples ahead of the first keyframe cannot be decoded and are skipped
+                if (muxer != null && formats[track] != null) {
+                    info.set(0, size, Math.max(0, time - segmentStart), keyframe ? MediaCodec.BUFFER_FLAG_KEY_FRAME : 0);
+                    muxer.writeSampleData(muxerTracks[track], buffer, info);
+                }
+                extractor.advance();
+            }
+            if (muxer != null) {
+                muxer.stop();
+            }
+            return segments;
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            // MediaMuxer reports malformed input as runtime exceptions
+            throw new IOException("Cannot split " + input, e);
+        } finally {
+            if (muxer != null) {
+                muxer.release();
+            }
+            extractor.release();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.truvideo.video;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Minimal JMH-style loop: warms an operation up, then runs it for a fixed time and
+ * prints throughput and bytes allocated per operation on the current thread.
+ */
+final class BenchmarkRunner {
+
+    interface Op {
+        Object run() throws Exception;
+    }
+
+    private static final long WARMUP_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final long MEASURE_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int BATCH = 16;
+
+    // Results land here so the JIT cannot drop the measured work
+    static volatile Object sink;
+
+    private BenchmarkRunner() {
+    }
+
+    static void run(String name, int size, Op op) throws Exception {
+        long warmupEnd = System.nanoTime() + WARMUP_NANOS;
+        while (System.nanoTime() < warmupEnd) {
+            sink = op.run();
+        }
+
+        long allocatedBefore = allocatedBytes();
+        long ops = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (int i = 0; i < BATCH; i++) {
+                sink = op.run();
+            }
+            ops += BATCH;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < MEASURE_NANOS);
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        System.out.printf("%-24s size=%-5d %14.1f ops/s %12s B/op%n",
+                name,
+                size,
+                ops * 1e9 / elapsed,
+                allocatedBefore < 0 ? "n/a" : String.format("%.0f", (double) allocated / ops));
+    }
+
+    private static long allocatedBytes() {
+        // HotSpot-specific; other VMs report n/a
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
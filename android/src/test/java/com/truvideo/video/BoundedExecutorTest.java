@@ -0,0 +1,72 @@
+package com.truvideo.video;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BoundedExecutorTest {
+
+    // Runs tasks on the submitting thread so every assertion sees the finished state
+    private final BoundedExecutor executor = new BoundedExecutor(Runnable::run, 1);
+
+    @Test
+    public void throwingTaskCallsItsFailureHook() {
+        IllegalStateException thrown = new IllegalStateException("boom");
+        List<RuntimeException> failures = new ArrayList<>();
+
+        executor.execute(done -> {
+            throw thrown;
+        }, failures::add);
+
+        assertEquals(1, failures.size());
+        assertSame(thrown, failures.get(0));
+    }
+
+    @Test
+    public void throwingTaskFreesItsSlot() {
+        AtomicInteger ran = new AtomicInteger();
+
+        executor.execute(done -> {
+            throw new IllegalStateException("boom");
+        }, e -> { });
+        executor.execute(done -> {
+            ran.incrementAndGet();
+            done.run();
+        }, e -> { });
+
+        assertEquals(1, ran.get());
+        assertEquals(Integer.valueOf(0), executor.stats().getInteger("running"));
+    }
+
+    @Test
+    public void completedTaskDoesNotCallItsFailureHook() {
+        List<RuntimeException> failures = new ArrayList<>();
+
+        executor.execute(Runnable::run, failures::add);
+
+        assertTrue(failures.isEmpty());
+    }
+
+    @Test
+    public void throwingHookDoesNotStopLaterTasks() {
+        AtomicInteger ran = new AtomicInteger();
+
+        executor.execute(done -> {
+            throw new IllegalStateException("boom");
+        }, e -> {
+            throw new IllegalArgumentException("hook");
+        });
+        executor.execute(done -> {
+            ran.incrementAndGet();
+            done.run();
+        }, e -> { });
+
+        assertEquals(1, ran.get());
+    }
+}
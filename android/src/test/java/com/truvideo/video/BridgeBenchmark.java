@@ -0,0 +1,111 @@
+package com.truvideo.video;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import com.truvideo.sdk.video.model.TruvideoSdkVideoFile;
+import com.truvideo.sdk.video.model.TruvideoSdkVideoRequest;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bridge-side costs of the plugin, measured on the host JVM. File handles come from the
+ * SDK factory through the plugin's own resolver; requests are stub-only mocks.
+ * Excluded from normal test runs; run with {@code ./gradlew testDebugUnitTest -Pbenchmark}.
+ */
+public class BridgeBenchmark {
+
+    private static final int[] SIZES = {1, 10, 100, 1000};
+    private static final String CONFIG = "{\"height\":\"720\",\"width\":\"1280\",\"framesRate\":\"thirtyFps\"}";
+
+    private final TruvideoSdkVideoPlugin plugin = new TruvideoSdkVideoPlugin();
+
+    @Before
+    public void setUp() throws Exception {
+        // load() needs a bridge; plain paths only touch the resolver's pass-through branch,
+        // so a resolver without a ContentResolver or staging cache is enough
+        Field resolver = TruvideoSdkVideoPlugin.class.getDeclaredField("inputResolver");
+        resolver.setAccessible(true);
+        resolver.set(plugin, new InputResolver(null, null));
+    }
+
+    @Test
+    public void filePaths() throws Exception {
+        for (int size : SIZES) {
+            String uris = uris(size);
+            BenchmarkRunner.run("filePaths", size, () -> plugin.filePaths(uris));
+        }
+    }
+
+    @Test
+    public void listVideoFile() throws Exception {
+        for (int size : SIZES) {
+            List<String> paths = plugin.filePaths(uris(size));
+            BenchmarkRunner.run("listVideoFile", size, () -> plugin.listVideoFile(paths));
+        }
+    }
+
+    @Test
+    public void configParsing() throws Exception {
+        BenchmarkRunner.run("configParsing", 1, () -> VideoConfig.parse(new JSONObject(CONFIG)));
+    }
+
+    @Test
+    public void mergeVideosArguments() throws Exception {
+        // Everything mergeVideos does on the bridge thread before handing off to the builder
+        for (int size : SIZES) {
+            String uris = uris(size);
+            BenchmarkRunner.run("mergeVideosArguments", size, () -> {
+                List<TruvideoSdkVideoFile> files = plugin.listVideoFile(plugin.filePaths(uris));
+                VideoConfig.parse(new JSONObject(CONFIG));
+                return files;
+            });
+        }
+    }
+
+    @Test
+    public void returnRequest() throws Exception {
+        for (int size : SIZES) {
+            List<TruvideoSdkVideoRequest> requests = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                requests.add(request(i));
+            }
+            BenchmarkRunner.run("returnRequest", size, () -> {
+                List<String> results = new ArrayList<>(requests.size());
+                for (TruvideoSdkVideoRequest request : requests) {
+                    results.add(plugin.returnRequest(request));
+                }
+                return results;
+            });
+        }
+    }
+
+    private static TruvideoSdkVideoRequest request(int index) {
+        // Stub-only mocks keep no invocation history, so the getters stay cheap
+        TruvideoSdkVideoRequest request = mock(TruvideoSdkVideoRequest.class, withSettings().stubOnly());
+        TruvideoSdkVideoRequest.Status status = TruvideoSdkVideoRequest.Status.values()[0];
+        TruvideoSdkVideoRequest.Type type = TruvideoSdkVideoRequest.Type.values()[0];
+        when(request.getId()).thenReturn("request-" + index);
+        when(request.getCreatedAt()).thenReturn(1_700_000_000_000L);
+        when(request.getUpdatedAt()).thenReturn(1_700_000_100_000L);
+        when(request.getStatus()).thenReturn(status);
+        when(request.getType()).thenReturn(type);
+        return request;
+    }
+
+    private static String uris(int size) {
+        JSONArray array = new JSONArray();
+        for (int i = 0; i < size; i++) {
+            array.put("/data/user/0/com.example.plugin/files/camera/clip_" + i + ".mp4");
+        }
+        return array.toString();
+    }
+}
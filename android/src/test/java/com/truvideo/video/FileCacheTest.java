@@ -0,0 +1,95 @@
+package com.truvideo.video;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+
+public class FileCacheTest {
+
+    private File dir;
+    private FileCache cache;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("file-cache").toFile();
+        cache = new FileCache(dir, 100);
+    }
+
+    @After
+    public void tearDown() {
+        cache.clear();
+        dir.delete();
+    }
+
+    @Test
+    public void entryLargerThanBudgetSurvivesItsOwnPut() throws IOException {
+        File file = cache.put("big", write("big", 250));
+
+        assertTrue(file.isFile());
+        assertNotNull(cache.get("big"));
+    }
+
+    @Test
+    public void leastRecentlyUsedEntryIsEvicted() throws IOException {
+        cache.put("a", write("a", 60));
+        cache.put("b", write("b", 60));
+
+        assertNull(cache.get("a"));
+        assertNotNull(cache.get("b"));
+    }
+
+    @Test
+    public void pinnedEntryIsNotEvictedByLaterPuts() throws IOException {
+        cache.put("first", write("first", 60));
+        cache.pin("first");
+        cache.put("second", write("second", 60));
+
+        assertNotNull(cache.get("first"));
+        assertNotNull(cache.get("second"));
+    }
+
+    @Test
+    public void unpinEvictsWhatThePinHeldOverBudget() throws IOException {
+        cache.put("first", write("first", 60));
+        cache.pin("first");
+        cache.put("second", write("second", 60));
+        cache.get("second");
+
+        cache.unpin("first");
+
+        assertFalse(cache.fileFor("first").exists());
+        assertNotNull(cache.get("second"));
+    }
+
+    @Test
+    public void entryPinnedTwiceNeedsTwoUnpins() throws IOException {
+        cache.put("first", write("first", 60));
+        cache.pin("first");
+        cache.pin("first");
+        cache.put("second", write("second", 60));
+
+        cache.unpin("first");
+        cache.put("third", write("third", 10));
+
+        assertNotNull(cache.get("first"));
+    }
+
+    private File write(String key, int bytes) throws IOException {
+        // Written straight into the cache file, as the staging and transcode paths do
+        File file = cache.fileFor(key);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[bytes]);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,48 @@
+package com.truvideo.video;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+public class VideoConfigTest {
+
+    @Test
+    public void unsetFieldsFromEncodeBuilderAreSkipped() throws JSONException {
+        // What EncodeBuilder.build() sends when only the frame rate was chosen
+        VideoConfig config = VideoConfig.parse(new JSONObject("{\"height\":\"\",\"width\":\"\",\"framesRate\":\"thirtyFps\"}"));
+
+        assertNull(config.height);
+        assertNull(config.width);
+        assertEquals("thirtyFps", config.framesRate);
+    }
+
+    @Test
+    public void emptyAndNullValuesMeanDefault() throws JSONException {
+        VideoConfig config = VideoConfig.parse(new JSONObject(
+                "{\"height\":null,\"width\":\"\",\"framesRate\":\"\",\"targetSizeMb\":\"\",\"targetBitrateKbps\":null}"));
+
+        assertNull(config.height);
+        assertNull(config.width);
+        assertNull(config.framesRate);
+        assertFalse(config.hasTarget());
+    }
+
+    @Test
+    public void numericStringsAreParsed() throws JSONException {
+        VideoConfig config = VideoConfig.parse(new JSONObject("{\"height\":\"720\",\"width\":1280,\"targetSizeMb\":\"2\"}"));
+
+        assertEquals(Integer.valueOf(720), config.height);
+        assertEquals(Integer.valueOf(1280), config.width);
+        assertEquals(Long.valueOf(2L * 1024 * 1024), config.targetBytes);
+    }
+
+    @Test
+    public void malformedValuesStillFail() {
+        assertThrows(JSONException.class, () -> VideoConfig.parse(new JSONObject("{\"height\":\"tall\"}")));
+    }
+}
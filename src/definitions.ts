@@ -1,66 +1,292 @@
+import type { PluginListenerHandle } from '@capacitor/core';
+
+export interface VideoRequestEvent {
+    id: string;
+    event: 'built' | 'queued' | 'processing' | 'completed' | 'failed' | 'cancelled' | 'deleted';
+    status?: string;
+    type?: string;
+    createdAt?: string;
+    updatedAt?: string;
+    error?: string;
+}
+
+export interface VideoInfoBatchEvent {
+    batchId: string;
+    path: string;
+    result?: string;
+    error?: string;
+    /** Files still being probed after this one */
+    remaining: number;
+}
+
+export interface CacheStats {
+    size: number;
+    maxSize?: number;
+    bytes?: number;
+    maxBytes?: number;
+    hits: number;
+    misses: number;
+    hitRate?: number;
+}
+
+export interface VideoRequestSummary {
+    id: string;
+    createdAt: string;
+    status: string;
+    type: string;
+    updatedAt: string;
+    resultPath?: string;
+}
+
+export interface MethodMetrics {
+    calls: number;
+    errors: number;
+    inFlight: number;
+    p50: number;
+    p95: number;
+    p99: number;
+    max: number;
+    /** Milliseconds from plugin load until this method first settled; absent until then. */
+    firstResultMs?: number;
+    /** Latency of that first call in milliseconds. */
+    firstCallMs?: number;
+    /** Calls rejected because their deadline passed; also counted in errors. */
+    timeouts: number;
+}
+
+/** Accepted by every method that takes options. */
+export interface CallOptions {
+    /** Rejects with code TIMEOUT when the call has not settled in time; overrides the callTimeoutMs config. */
+    timeoutMs?: number;
+    /** On timeout, also cancel the SDK work behind the call (processVideo and segmented encodeVideo). */
+    cancelOnTimeout?: boolean;
+}
+
+export interface LaneStats {
+    queueDepth: number;
+    running: number;
+    maxParallel: number;
+}
+
+export interface PipelineStage {
+    op: 'cleanNoise' | 'encode' | 'thumbnail';
+    /** Where to keep this stage's output; omitted outputs are temp files. Required on the last stage. */
+    resultPath?: string;
+    config?: string | object;
+    position?: number;
+    width?: number;
+    height?: number;
+    precise?: boolean;
+}
+
+export interface PipelineStageTiming {
+    op: string;
+    output?: string;
+    durationMs: number;
+}
+
+export interface StorageUsage {
+    count: number;
+    pinned: number;
+    bytes: number;
+    quotaBytes: number;
+    freeBytes: number;
+}
+
+export interface BulkRequestOptions {
+    /** JSON array of request ids; when omitted the filters below select the requests */
+    ids?: string;
+    status?: string;
+    type?: string;
+    /** Epoch millis; matches requests created before it */
+    olderThan?: number;
+    maxParallelism?: number;
+}
+
+export interface BulkSummary {
+    total: number;
+    succeeded: string[];
+    failed: { id: string; error: string }[];
+}
+
 export interface TruvideoSdkVideoPlugin {
     echo(options: {
         value: string
-    }): Promise<{ value: string }>;
+    } & CallOptions): Promise<{ value: string }>;
 
     concatVideos(options: {
         videoUris: string;
         resultPath: string
-    }): Promise<{ result: object }>;
+    } & CallOptions): Promise<{ result: object }>;
+
+    getVideoInfoBatch(options: {
+        videoPaths: string;
+        stream?: boolean;
+        batchId?: string;
+    } & CallOptions): Promise<{ result: { [path: string]: string }; errors: { [path: string]: string } }>;
+
+    /** Concatenates when the inputs' streams are compatible, otherwise re-encodes with a merge. */
+    joinVideos(options: {
+        videoUris: string;
+        resultPath: string;
+        config?: string;
+    } & CallOptions): Promise<{ result: object; strategy: 'concat' | 'merge'; reason: string }>;
 
     encodeVideo(options: {
         videoUri: string;
         resultPath: string;
         config: string;
-    }): Promise<{ result: object }>;
+        useCache?: boolean;
+        segmented?: boolean;
+        segmentSeconds?: number;
+        maxParallelism?: number;
+        jobId?: string;
+    } & CallOptions): Promise<{
+        result: object;
+        cached?: boolean;
+        jobId?: string;
+        segments?: number;
+        /** Settings chosen when config has targetSizeMb or targetBitrateKbps */
+        plan?: { width: number; height: number; frameRate: number; estimatedBytes: number };
+        actualBytes?: number;
+        passes?: number;
+    }>;
+
+    cancelJob(options: {
+        jobId: string;
+    } & CallOptions): Promise<void>;
+
+    runPipeline(options: {
+        videoPath: string;
+        stages: string;
+    } & CallOptions): Promise<{ result: string; stages: PipelineStageTiming[]; durationMs: number }>;
 
     getVideoInfo(options: {
         videoPath: string;
-    }): Promise<{ result: object }>;
+    } & CallOptions): Promise<{ result: object }>;
 
     compareVideos(options: {
         videoUris: string;
-    }): Promise<{ result: object }>;
+    } & CallOptions): Promise<{ result: object }>;
 
     mergeVideos(options: {
         videoUris: string;
         resultPath: string;
         config: string;
-    }): Promise<{ result: object }>;
+        useCache?: boolean;
+    } & CallOptions): Promise<{ result: object; cached?: boolean }>;
 
     cleanNoise(options: {
         videoPath: string;
         resultPath: string;
-    }): Promise<{ result: object }>;
+    } & CallOptions): Promise<{ result: object }>;
 
     editVideo(options: {
         videoPath: string;
         resultPath: string;
-    }): Promise<{ result: object }>;
+    } & CallOptions): Promise<{ result: object }>;
 
     generateThumbnail(options: {
         videoPath: string;
-        resultPath: string;
+        resultPath?: string;
         position: number;
         width: number;
         height: number;
         precise: boolean;
-    }): Promise<{ result: object }>;
+        cache?: boolean;
+    } & CallOptions): Promise<{ result: object }>;
+
+    generateThumbnails(options: {
+        videoPath: string;
+        resultDir?: string;
+        positions?: string;
+        count?: number;
+        width: number;
+        height: number;
+        precise: boolean;
+        cache?: boolean;
+    } & CallOptions): Promise<{ result: string[] }>;
 
     getResultPath(options: {
         path: string
-    }): Promise<{ result: string }>;
+    } & CallOptions): Promise<{ result: string }>;
 
     getRequestById(options: {
         path: string
-    }): Promise<{ result: string }>;
+    } & CallOptions): Promise<{ result: string }>;
 
     processVideo(options: {
-        path: string
-    }): Promise<{ result: object }>;
+        path: string;
+        priority?: 'user' | 'background';
+    } & CallOptions): Promise<{
+        result: object;
+        /** Output reused from an earlier transcode; the unprocessed request was deleted. */
+        cached?: boolean;
+    }>;
+
+    getProcessQueue(): Promise<{ result: object[] }>;
+
+    listRequests(options: {
+        status?: string;
+        type?: string;
+        createdAfter?: number;
+        createdBefore?: number;
+        limit?: number;
+        cursor?: string;
+    } & CallOptions): Promise<{ result: VideoRequestSummary[]; nextCursor: string | null }>;
+
+    getCacheStats(): Promise<{ [cache: string]: CacheStats }>;
+
+    getMetrics(): Promise<{
+        methods: { [method: string]: MethodMetrics };
+        lanes: { metadata: LaneStats; transcode: LaneStats };
+        singleFlight: { [operation: string]: { started: number; coalesced: number } };
+    }>;
+
+    clearTranscodeCache(): Promise<void>;
+
+    getStorageUsage(): Promise<{ result: StorageUsage }>;
+
+    pinOutput(options: {
+        path: string;
+        pinned?: boolean;
+    } & CallOptions): Promise<void>;
 
     cancelVideo(options: {
         path: string
-    }): Promise<{ result: object }>;
+    } & CallOptions): Promise<{ result: object }>;
+
+    deleteRequests(options: BulkRequestOptions & { deleteOutputs?: boolean }): Promise<BulkSummary>;
+
+    cancelRequests(options: BulkRequestOptions): Promise<BulkSummary>;
+
+    submitBatch(options: {
+        jobs: string;
+        maxParallelism?: number;
+        process?: boolean;
+    } & CallOptions): Promise<{ result: object[] }>;
+
+    /** Starts or stops recording spans for plugin calls and SDK operations. */
+    setTracing(options: {
+        enabled?: boolean;
+        clear?: boolean;
+    } & CallOptions): Promise<void>;
+
+    /** Writes recorded spans as Chrome trace-event JSON, viewable in Perfetto. */
+    exportTrace(options?: {
+        path?: string;
+    } & CallOptions): Promise<{ result: string; spans: number; dropped: number }>;
+
+    addListener(
+        eventName: 'videoRequestStatus',
+        listenerFunc: (event: VideoRequestEvent) => void
+    ): Promise<PluginListenerHandle>;
+
+    addListener(
+        eventName: 'videoInfoBatch',
+        listenerFunc: (event: VideoInfoBatchEvent) => void
+    ): Promise<PluginListenerHandle>;
+
+    removeAllListeners(): Promise<void>;
 
 }
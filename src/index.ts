@@ -1,12 +1,23 @@
 import { registerPlugin } from '@capacitor/core';
 
-import type { TruvideoSdkVideoPlugin } from './definitions';
+import type { PipelineStage, PipelineStageTiming, TruvideoSdkVideoPlugin } from './definitions';
 
 const TruvideoSdkVideo = registerPlugin<TruvideoSdkVideoPlugin>('TruvideoSdkVideo');
 
 export function getVideoInfo(videoPath: string): Promise<{ result: object }> {
     return TruvideoSdkVideo.getVideoInfo({ videoPath });
 }
+export function getVideoInfoBatch(
+    videoPaths: string[],
+    stream?: boolean,
+    batchId?: string
+): Promise<{ result: { [path: string]: string }; errors: { [path: string]: string } }> {
+    return TruvideoSdkVideo.getVideoInfoBatch({
+        videoPaths: JSON.stringify(videoPaths),
+        stream: stream,
+        batchId: batchId
+    });
+}
 export function compareVideos(videoPath: string): Promise<{ result: object }> {
     return TruvideoSdkVideo.compareVideos({ videoUris: videoPath });
 }
@@ -46,6 +57,67 @@ export function generateThumbnail(
     });
 }
 
+export interface BatchJob {
+    type: 'encode' | 'merge' | 'concat';
+    resultPath: string;
+    videoUri?: string;
+    videoUris?: string[];
+    config?: object;
+}
+
+export function submitBatch(
+    jobs: BatchJob[],
+    maxParallelism?: number,
+    process?: boolean
+): Promise<{ result: object[] }> {
+    return TruvideoSdkVideo.submitBatch({
+        jobs: JSON.stringify(jobs),
+        maxParallelism: maxParallelism,
+        process: process
+    });
+}
+
+export function generateThumbnails(
+    videoPath: string,
+    positionsOrCount: number[] | number,
+    width: number,
+    height: number,
+    precise: boolean,
+    resultDir?: string
+): Promise<{ result: string[] }> {
+    return TruvideoSdkVideo.generateThumbnails({
+        videoPath: videoPath,
+        resultDir: resultDir,
+        positions: Array.isArray(positionsOrCount) ? JSON.stringify(positionsOrCount) : undefined,
+        count: Array.isArray(positionsOrCount) ? undefined : positionsOrCount,
+        width: width,
+        height: height,
+        precise: precise
+    });
+}
+
+export function joinVideos(
+    videoUris: string[],
+    resultPath: string,
+    config?: object
+): Promise<{ result: object; strategy: 'concat' | 'merge'; reason: string }> {
+    return TruvideoSdkVideo.joinVideos({
+        videoUris: JSON.stringify(videoUris),
+        resultPath: resultPath,
+        config: config ? JSON.stringify(config) : undefined
+    });
+}
+
+export function runPipeline(
+    videoPath: string,
+    stages: PipelineStage[]
+): Promise<{ result: string; stages: PipelineStageTiming[]; durationMs: number }> {
+    return TruvideoSdkVideo.runPipeline({
+        videoPath: videoPath,
+        stages: JSON.stringify(stages)
+    });
+}
+
 export enum FrameRate {
     twentyFourFps = 'twentyFourFps',
     twentyFiveFps = 'twentyFiveFps',
@@ -211,6 +283,9 @@ export class EncodeBuilder {
     private height = '';
     private width = '';
     private frameRate = '';
+    private targetSizeMb?: number;
+    private targetBitrateKbps?: number;
+    private verify = false;
     private mergeData?: BuilderResponse;
 
     constructor(filePath: string, resultPath: string) {
@@ -254,12 +329,29 @@ export class EncodeBuilder {
         return this;
     }
 
+    // Lets the plugin pick resolution and frame rate to fit the budget; with verify,
+    // build() also processes the video and re-encodes once if it overshoots
+    setTargetSize(sizeMb: number, verify = false): EncodeBuilder {
+        this.targetSizeMb = sizeMb;
+        this.verify = verify;
+        return this;
+    }
+
+    setTargetBitrate(bitrateKbps: number, verify = false): EncodeBuilder {
+        this.targetBitrateKbps = bitrateKbps;
+        this.verify = verify;
+        return this;
+    }
+
     // Builds the video using encodeVideo method
     async build(): Promise<EncodeBuilder> {
         const config = {
             height: this.height,
             width: this.width,
             framesRate: this.frameRate,
+            targetSizeMb: this.targetSizeMb,
+            targetBitrateKbps: this.targetBitrateKbps,
+            verify: this.verify,
         };
 
         const response = await TruvideoSdkVideo.encodeVideo({